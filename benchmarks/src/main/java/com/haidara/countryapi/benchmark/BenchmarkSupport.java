@@ -0,0 +1,120 @@
+package com.haidara.countryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.haidara.countryapi.CountryApiApplication;
+import com.haidara.countryapi.model.Country;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Fixtures, synthetic datasets and application contexts with or without the web server. */
+final class BenchmarkSupport {
+
+    static final String[] REGIONS = {"Africa", "Americas", "Asia", "Europe", "Oceania", "Antarctic"};
+    static final String[] CURRENCIES = {"NGN", "USD", "EUR", "GBP", "JPY", "GHS", "KES", "XOF", "INR", "BRL"};
+
+    private BenchmarkSupport() {}
+
+    static ConfigurableApplicationContext startApplication(String countriesUrl, String ratesUrl) {
+        return start(WebApplicationType.NONE, countriesUrl, ratesUrl);
+    }
+
+    /** The application behind Tomcat on a random port ({@code local.server.port}), plus {@code extraArgs}. */
+    static ConfigurableApplicationContext startWebApplication(String countriesUrl, String ratesUrl,
+                                                              String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(List.of(extraArgs));
+        return start(WebApplicationType.SERVLET, countriesUrl, ratesUrl, args.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String countriesUrl,
+                                                        String ratesUrl, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--app.external.countries-api=" + countriesUrl,
+                "--app.external.exchange-api=" + ratesUrl,
+                "--spring.jpa.show-sql=false",
+                "--app.snapshot.enabled=false",
+                "--app.rates.history.enabled=false",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime(),
+                "--logging.level.root=WARN",
+                "--logging.level.com.haidara.countryapi=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(CountryApiApplication.class)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+
+    static byte[] fixture(String name) {
+        try (InputStream in = BenchmarkSupport.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing fixture " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The rates fixture padded with synthetic currencies until it quotes {@code currencies} rates;
+     * the fixture's own rates are always kept so every country still joins.
+     */
+    static byte[] ratesPayload(int currencies) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode root = (ObjectNode) mapper.readTree(fixture("rates.json"));
+            ObjectNode rates = (ObjectNode) root.get("rates");
+            for (int i = 0; rates.size() < currencies; i++) rates.put(String.format("Z%05d", i), 1.0 + i % 1000);
+            return mapper.writeValueAsBytes(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The countries fixture repeated until it holds {@code records} entries,
+     * with unique names and populations shifted by {@code populationDelta}.
+     */
+    static byte[] countriesPayload(int records, long populationDelta) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            ArrayNode source = (ArrayNode) mapper.readTree(fixture("countries.json"));
+            ArrayNode out = mapper.createArrayNode();
+            for (int i = 0; i < records; i++) {
+                ObjectNode copy = source.get(i % source.size()).deepCopy();
+                ((ObjectNode) copy.get("name")).put("common", "Country " + i);
+                copy.put("population", copy.get("population").asLong() + populationDelta);
+                out.add(copy);
+            }
+            return mapper.writeValueAsBytes(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Deterministic countries-like rows spread over a few regions and currencies. */
+    static List<Country> syntheticCountries(int rows, LocalDateTime refreshedAt) {
+        Random random = new Random(rows);
+        List<Country> countries = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long population = 1_000 + (long) (random.nextDouble() * 1_400_000_000L);
+            double rate = 0.5 + random.nextDouble() * 1_500;
+            Country c = new Country("Country " + i, "Capital " + i,
+                    REGIONS[random.nextInt(REGIONS.length)], population,
+                    CURRENCIES[random.nextInt(CURRENCIES.length)], rate,
+                    population * (1000 + random.nextDouble() * 1000) / rate,
+                    "https://flagcdn.com/w320/c" + i + ".png");
+            c.setLastRefreshedAt(refreshedAt);
+            countries.add(c);
+        }
+        return countries;
+    }
+}
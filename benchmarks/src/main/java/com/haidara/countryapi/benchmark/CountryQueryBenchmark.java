@@ -0,0 +1,71 @@
+package com.haidara.countryapi.benchmark;
+
+import com.haidara.countryapi.service.CountryService;
+import com.haidara.countryapi.service.CountrySnapshotHolder;
+import com.haidara.countryapi.service.CountrySort;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** GET /countries service paths for every filter/sort shape over synthetic datasets. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountryQueryBenchmark {
+
+    @Param({"250", "10000", "1000000"})
+    public int rows;
+
+    @Param({"none", "region", "currency", "region+currency"})
+    public String filter;
+
+    @Param({"none", "gdp_desc", "gdp_asc", "population_desc", "population_asc"})
+    public String sort;
+
+    private ConfigurableApplicationContext context;
+    private CountryService countryService;
+    private CountrySnapshotHolder snapshotHolder;
+    private String region;
+    private String currency;
+    private String sortParam;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("http://127.0.0.1:9/unused", "http://127.0.0.1:9/unused");
+        countryService = context.getBean(CountryService.class);
+        snapshotHolder = context.getBean(CountrySnapshotHolder.class);
+        snapshotHolder.publish(BenchmarkSupport.syntheticCountries(rows, LocalDateTime.now()));
+
+        region = filter.contains("region") ? "africa" : null;
+        currency = filter.contains("currency") ? "eur" : null;
+        sortParam = sort.equals("none") ? null : sort;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Index lookup only: posting intersection plus ordered scan. */
+    @Benchmark
+    public int[] select() {
+        return snapshotHolder.get().getIndex().select(region, currency, CountrySort.fromParam(sortParam));
+    }
+
+    /** Index lookup plus materialized Country objects, as the list endpoint used to return. */
+    @Benchmark
+    public Object getAllCountries() {
+        return countryService.getAllCountries(region, currency, sortParam);
+    }
+
+    /** Pre-encoded response lookup, the steady-state cost of GET /countries. */
+    @Benchmark
+    public Object getAllCountriesJson() {
+        return countryService.getAllCountriesJson(region, currency, sortParam);
+    }
+}
@@ -0,0 +1,24 @@
+package com.haidara.countryapi.benchmark;
+
+import com.haidara.countryapi.service.CountryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Cost of one estimated-GDP computation during the refresh join. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GdpBenchmark {
+
+    private Long population = 206_139_589L;
+    private Double rate = 1600.23;
+
+    @Benchmark
+    public Double calculateEstimatedGdp() {
+        return CountryService.calculateEstimatedGdp(population, rate);
+    }
+}
@@ -0,0 +1,324 @@
+package com.haidara.countryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: the application behind Tomcat, a local upstream simulator and a closed-loop
+ * workload of list queries, name lookups, image fetches and refreshes. Prints throughput and latency
+ * percentiles per operation, writes them to target/loadtest-report.json and exits non-zero when an
+ * SLO from loadtest.properties is missed.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml -Ploadtest verify
+ * mvn -f benchmarks/pom.xml -Ploadtest verify -Dloadtest.args="threads=32 upstream.error-rate=0.2"
+ * </pre>
+ */
+public final class LoadTest {
+
+    enum Operation { LIST, LOOKUP, IMAGE, REFRESH }
+
+    private static final String[] SORTS = {null, "gdp_desc", "gdp_asc", "population_desc", "population_asc"};
+
+    private final Properties config;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+    private final int records;
+    private String base;
+    private List<String> names;
+    private List<String> regions;
+    private List<String> currencies;
+
+    private LoadTest(Properties config) {
+        this.config = config;
+        this.records = Integer.parseInt(config.getProperty("records"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = LoadTest.class.getResourceAsStream("/loadtest.properties")) {
+            config.load(in);
+        }
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            config.setProperty(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        List<String> missed = new LoadTest(config).run();
+        System.exit(missed.isEmpty() ? 0 : 1);
+    }
+
+    private List<String> run() throws Exception {
+        // Two payloads served in turn, so every refresh that reaches the upstream rewrites rows
+        byte[] first = BenchmarkSupport.countriesPayload(records, 0);
+        byte[] second = BenchmarkSupport.countriesPayload(records, 1);
+        byte[] rates = BenchmarkSupport.ratesPayload(Integer.parseInt(config.getProperty("rates.size")));
+        AtomicLong calls = new AtomicLong();
+        long latency = duration("upstream.latency").toMillis();
+        double errorRate = Double.parseDouble(config.getProperty("upstream.error-rate"));
+
+        try (UpstreamStub stub = new UpstreamStub(() -> calls.getAndIncrement() % 2 == 0 ? first : second,
+                () -> rates, latency)) {
+            ConfigurableApplicationContext context = BenchmarkSupport.startWebApplication(
+                    stub.countriesUrl(), stub.ratesUrl());
+            try {
+                base = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                // Seed the data before injecting faults, like an instance that has been up for a while
+                int seeded = send(HttpRequest.newBuilder(URI.create(base + "/countries/refresh?wait=true"))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build()).statusCode();
+                if (seeded != 200) throw new IllegalStateException("Initial refresh returned " + seeded);
+                // Query with the names, regions and currencies the application kept, so lookups and
+                // filters hit real rows; records without usable data are dropped on refresh
+                Set<String> seenNames = new LinkedHashSet<>();
+                Set<String> seenRegions = new LinkedHashSet<>();
+                Set<String> seenCurrencies = new LinkedHashSet<>();
+                byte[] body = send(HttpRequest.newBuilder(
+                        URI.create(base + "/countries?fields=name,region,currency_code")).GET().build()).body();
+                new ObjectMapper().readTree(body).forEach(row -> {
+                    seenNames.add(row.get("name").asText());
+                    if (row.hasNonNull("region")) seenRegions.add(row.get("region").asText());
+                    if (row.hasNonNull("currency_code")) seenCurrencies.add(row.get("currency_code").asText());
+                });
+                if (seenNames.isEmpty()) throw new IllegalStateException("Initial refresh stored no countries");
+                names = List.copyOf(seenNames);
+                regions = List.copyOf(seenRegions);
+                currencies = List.copyOf(seenCurrencies);
+                System.out.printf("Seeded %d countries in %d regions with %d currencies%n",
+                        names.size(), regions.size(), currencies.size());
+                stub.setErrorRate(errorRate);
+
+                Map<Operation, long[]> latencies = new EnumMap<>(Operation.class);
+                Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+                long measuredNanos = drive(latencies, errors);
+                return report(latencies, errors, measuredNanos);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /** Closed loop: every thread issues its next request as soon as the previous one returns. */
+    private long drive(Map<Operation, long[]> latencies, Map<Operation, Long> errors) throws InterruptedException {
+        int threads = Integer.parseInt(config.getProperty("threads"));
+        long warmupNanos = duration("warmup").toNanos();
+        long measureNanos = duration("duration").toNanos();
+        int[] weights = new int[Operation.values().length];
+        for (Operation op : Operation.values())
+            weights[op.ordinal()] = Integer.parseInt(config.getProperty("mix." + op.name().toLowerCase(Locale.ROOT)));
+        int totalWeight = Arrays.stream(weights).sum();
+
+        Recorder[] recorders = new Recorder[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + measureNanos;
+        System.out.printf("Running %d threads: %d s warmup, %d s measured%n",
+                threads, warmupNanos / 1_000_000_000, measureNanos / 1_000_000_000);
+
+        for (int t = 0; t < threads; t++) {
+            Recorder recorder = recorders[t] = new Recorder();
+            Thread worker = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        Operation op = pick(weights, totalWeight, random.nextInt(totalWeight));
+                        HttpRequest request = request(op, random);
+                        boolean ok;
+                        try {
+                            ok = expected(op, send(request).statusCode());
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long finished = System.nanoTime();
+                        if (now >= measureFrom) recorder.record(op, finished - now, ok);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + t);
+            worker.start();
+        }
+        done.await();
+
+        for (Operation op : Operation.values()) {
+            long[] merged = new long[0];
+            long failed = 0;
+            for (Recorder recorder : recorders) {
+                long[] part = recorder.latencies(op);
+                long[] grown = Arrays.copyOf(merged, merged.length + part.length);
+                System.arraycopy(part, 0, grown, merged.length, part.length);
+                merged = grown;
+                failed += recorder.errors[op.ordinal()];
+            }
+            Arrays.sort(merged);
+            latencies.put(op, merged);
+            errors.put(op, failed);
+        }
+        return measureNanos;
+    }
+
+    private static Operation pick(int[] weights, int total, int roll) {
+        for (Operation op : Operation.values()) {
+            roll -= weights[op.ordinal()];
+            if (roll < 0) return op;
+        }
+        throw new IllegalStateException("Weights must add up to " + total);
+    }
+
+    private HttpRequest request(Operation op, ThreadLocalRandom random) {
+        switch (op) {
+            case LIST -> {
+                StringBuilder query = new StringBuilder("/countries?limit=50");
+                int filter = random.nextInt(4);
+                if ((filter & 1) != 0 && !regions.isEmpty())
+                    query.append("&region=").append(encode(regions.get(random.nextInt(regions.size()))));
+                if ((filter & 2) != 0 && !currencies.isEmpty())
+                    query.append("&currency=").append(encode(currencies.get(random.nextInt(currencies.size()))));
+                String sort = SORTS[random.nextInt(SORTS.length)];
+                if (sort != null) query.append("&sort=").append(sort);
+                return HttpRequest.newBuilder(URI.create(base + query)).GET().build();
+            }
+            case LOOKUP -> {
+                String name = names.get(random.nextInt(names.size()));
+                return HttpRequest.newBuilder(URI.create(base + "/countries/" + encode(name))).GET().build();
+            }
+            case IMAGE -> {
+                return HttpRequest.newBuilder(URI.create(base + "/countries/image")).GET().build();
+            }
+            default -> {
+                return HttpRequest.newBuilder(URI.create(base + "/countries/refresh"))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+            }
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static boolean expected(Operation op, int status) {
+        return op == Operation.REFRESH ? status == 202 : status == 200;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /** Print the results, write the JSON report and return the SLOs that were missed. */
+    private List<String> report(Map<Operation, long[]> latencies, Map<Operation, Long> errors, long measuredNanos)
+            throws IOException {
+        double seconds = measuredNanos / 1e9;
+        long totalRequests = 0;
+        long totalErrors = 0;
+        List<String> missed = new ArrayList<>();
+        Map<String, Object> operations = new LinkedHashMap<>();
+
+        System.out.printf("%n%-8s %9s %9s %8s %8s %8s %8s %8s%n",
+                "op", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Operation op : Operation.values()) {
+            long[] sorted = latencies.get(op);
+            long failed = errors.get(op);
+            totalRequests += sorted.length;
+            totalErrors += failed;
+            String name = op.name().toLowerCase(Locale.ROOT);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", sorted.length);
+            stats.put("throughput", sorted.length / seconds);
+            stats.put("errors", failed);
+            stats.put("p50_ms", percentile(sorted, 50) / 1e6);
+            stats.put("p90_ms", percentile(sorted, 90) / 1e6);
+            stats.put("p99_ms", percentile(sorted, 99) / 1e6);
+            stats.put("max_ms", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            operations.put(name, stats);
+            System.out.printf("%-8s %9d %9.1f %8d %8.2f %8.2f %8.2f %8.2f%n", name, sorted.length,
+                    sorted.length / seconds, failed, stats.get("p50_ms"), stats.get("p90_ms"),
+                    stats.get("p99_ms"), stats.get("max_ms"));
+
+            String limit = config.getProperty("slo." + name + ".p99");
+            if (limit != null && sorted.length > 0) {
+                Duration p99 = Duration.ofNanos(percentile(sorted, 99));
+                if (p99.compareTo(Duration.parse(limit)) > 0)
+                    missed.add(name + " p99 " + p99.toMillis() + " ms > " + Duration.parse(limit).toMillis() + " ms");
+            }
+        }
+
+        double throughput = totalRequests / seconds;
+        double errorRate = totalRequests == 0 ? 0 : (double) totalErrors / totalRequests;
+        System.out.printf("%ntotal: %d requests, %.1f req/s, error rate %.4f%n", totalRequests, throughput, errorRate);
+
+        double minThroughput = Double.parseDouble(config.getProperty("slo.min-throughput", "0"));
+        if (throughput < minThroughput)
+            missed.add(String.format("throughput %.1f req/s < %.1f req/s", throughput, minThroughput));
+        double maxErrorRate = Double.parseDouble(config.getProperty("slo.max-error-rate", "1"));
+        if (errorRate > maxErrorRate)
+            missed.add(String.format("error rate %.4f > %.4f", errorRate, maxErrorRate));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", new TreeMap<>(config));
+        report.put("throughput", throughput);
+        report.put("error_rate", errorRate);
+        report.put("operations", operations);
+        report.put("slo_missed", missed);
+        Path file = Path.of(config.getProperty("report", "target/loadtest-report.json"));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+
+        if (missed.isEmpty()) {
+            System.out.println("All SLOs met. Report: " + file);
+        } else {
+            System.out.println("SLOs missed:");
+            missed.forEach(m -> System.out.println("  " + m));
+        }
+        return missed;
+    }
+
+    /** Nearest-rank percentile of an ascending array. */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private Duration duration(String key) {
+        return Duration.parse(config.getProperty(key));
+    }
+
+    /** Per-thread latency samples, so workers never contend while recording. */
+    private static final class Recorder {
+        private final long[][] samples = new long[Operation.values().length][1024];
+        private final int[] counts = new int[Operation.values().length];
+        private final long[] errors = new long[Operation.values().length];
+
+        void record(Operation op, long nanos, boolean ok) {
+            int i = op.ordinal();
+            if (!ok) errors[i]++;
+            if (counts[i] == samples[i].length) samples[i] = Arrays.copyOf(samples[i], counts[i] * 2);
+            samples[i][counts[i]++] = nanos;
+        }
+
+        long[] latencies(Operation op) {
+            return Arrays.copyOf(samples[op.ordinal()], counts[op.ordinal()]);
+        }
+    }
+}
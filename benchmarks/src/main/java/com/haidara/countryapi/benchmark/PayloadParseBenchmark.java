@@ -0,0 +1,45 @@
+package com.haidara.countryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haidara.countryapi.model.ExternalCountry;
+import com.haidara.countryapi.service.CountryPayloadReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Databinding the whole ExternalCountry[] versus the streaming reader, on the fixture payload. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadParseBenchmark {
+
+    @Param({"250", "10000"})
+    public int records;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CountryPayloadReader payloadReader;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = records == 250 ? BenchmarkSupport.fixture("countries.json")
+                : BenchmarkSupport.countriesPayload(records, 0);
+        payloadReader = new CountryPayloadReader(objectMapper);
+    }
+
+    @Benchmark
+    public ExternalCountry[] databindArray() throws IOException {
+        return objectMapper.readValue(payload, ExternalCountry[].class);
+    }
+
+    @Benchmark
+    public int streamingReader(Blackhole blackhole) throws IOException {
+        return payloadReader.read(new ByteArrayInputStream(payload), blackhole::consume);
+    }
+}
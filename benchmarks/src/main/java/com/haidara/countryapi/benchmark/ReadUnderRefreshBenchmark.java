@@ -0,0 +1,94 @@
+package com.haidara.countryapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /countries throughput over real HTTP while {@code waiting} clients sit in
+ * POST /countries/refresh?wait=true against an upstream that takes 500 ms per call.
+ * Tomcat is capped at 16 workers so a design that pins request threads shows up as a collapse;
+ * compare the {@code platform} and {@code virtual} execution modes (virtual needs Java 21+).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class ReadUnderRefreshBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"0", "32"})
+    public int waiting;
+
+    private UpstreamStub stub;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest read;
+    private final List<Thread> refreshers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] countries = BenchmarkSupport.countriesPayload(250, 0);
+        byte[] rates = BenchmarkSupport.fixture("rates.json");
+        stub = new UpstreamStub(() -> countries, () -> rates, 500);
+        context = BenchmarkSupport.startWebApplication(stub.countriesUrl(), stub.ratesUrl(),
+                "--app.execution.mode=" + mode,
+                "--server.tomcat.threads.max=16");
+        String base = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest refresh = HttpRequest.newBuilder(URI.create(base + "/countries/refresh?wait=true"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        client.send(refresh, HttpResponse.BodyHandlers.discarding());
+        read = HttpRequest.newBuilder(URI.create(base + "/countries?limit=20")).GET().build();
+
+        running = true;
+        for (int i = 0; i < waiting; i++) {
+            Thread t = new Thread(() -> {
+                while (running) {
+                    try {
+                        client.send(refresh, HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException e) {
+                        // keep the pressure on; the read path is what is measured
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "refresher-" + i);
+            t.setDaemon(true);
+            t.start();
+            refreshers.add(t);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread t : refreshers) t.interrupt();
+        for (Thread t : refreshers) t.join(5_000);
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public int readCountries() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(read, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) throw new IllegalStateException("GET /countries: " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,56 @@
+package com.haidara.countryapi.benchmark;
+
+import com.haidara.countryapi.service.CountryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full refreshCountries() against a local stub: fetch, stream, join, diff and DB write.
+ * "changed" alternates two payloads so every row is rewritten; "unchanged" serves one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshPipelineBenchmark {
+
+    @Param({"unchanged", "changed"})
+    public String mode;
+
+    @Param({"250", "10000"})
+    public int records;
+
+    private UpstreamStub stub;
+    private ConfigurableApplicationContext context;
+    private CountryService countryService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] first = BenchmarkSupport.countriesPayload(records, 0);
+        byte[] second = mode.equals("changed") ? BenchmarkSupport.countriesPayload(records, 1) : first;
+        byte[] rates = BenchmarkSupport.fixture("rates.json");
+        AtomicLong calls = new AtomicLong();
+
+        stub = new UpstreamStub(() -> calls.getAndIncrement() % 2 == 0 ? first : second, () -> rates);
+        context = BenchmarkSupport.startApplication(stub.countriesUrl(), stub.ratesUrl());
+        countryService = context.getBean(CountryService.class);
+        countryService.refreshCountries();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public boolean refreshCountries() {
+        return countryService.refreshCountries();
+    }
+}
@@ -0,0 +1,51 @@
+package com.haidara.countryapi.benchmark;
+
+import com.haidara.countryapi.service.CountryMetrics;
+import com.haidara.countryapi.service.CountrySnapshot;
+import com.haidara.countryapi.service.CountrySnapshotHolder;
+import com.haidara.countryapi.service.ImageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** Rendering the summary PNG versus serving the cached bytes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SummaryImageBenchmark {
+
+    private CountrySnapshotHolder snapshotHolder;
+    private ImageService imageService;
+    private CountrySnapshot first;
+    private CountrySnapshot second;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshotHolder = new CountrySnapshotHolder(event -> {});
+        imageService = new ImageService(snapshotHolder, Runnable::run, new CountryMetrics(new SimpleMeterRegistry()));
+        LocalDateTime now = LocalDateTime.now();
+        // Different refresh times, so consecutive renders never hit the inputs check
+        first = CountrySnapshot.build(0, BenchmarkSupport.syntheticCountries(250, now));
+        second = CountrySnapshot.build(0, BenchmarkSupport.syntheticCountries(250, now.plusSeconds(1)));
+        snapshotHolder.publish(first);
+        imageService.generateSummaryImage();
+    }
+
+    @Benchmark
+    public Object generateSummaryImage() {
+        flip = !flip;
+        snapshotHolder.publish(flip ? second : first);
+        return imageService.generateSummaryImage();
+    }
+
+    @Benchmark
+    public Object cachedSummaryImage() {
+        return imageService.getSummaryImage();
+    }
+}
@@ -0,0 +1,81 @@
+package com.haidara.countryapi.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/** Local stand-in for the countries and exchange-rate APIs, serving in-memory payloads. */
+public class UpstreamStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final long delayMillis;
+    private volatile double errorRate;
+
+    public UpstreamStub(Supplier<byte[]> countries, Supplier<byte[]> rates) throws IOException {
+        this(countries, rates, 0);
+    }
+
+    /** Every response is held back {@code delayMillis} first, like a slow upstream. */
+    public UpstreamStub(Supplier<byte[]> countries, Supplier<byte[]> rates, long delayMillis) throws IOException {
+        this(countries, rates, delayMillis, 0);
+    }
+
+    /** As above, and a random {@code errorRate} share of responses are 503s. */
+    public UpstreamStub(Supplier<byte[]> countries, Supplier<byte[]> rates, long delayMillis, double errorRate)
+            throws IOException {
+        this.delayMillis = delayMillis;
+        this.errorRate = errorRate;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/countries", exchange -> respond(exchange, countries.get()));
+        server.createContext("/rates", exchange -> respond(exchange, rates.get()));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Change the share of 503 responses while the stub is running. */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public String countriesUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/countries";
+    }
+
+    public String ratesUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/rates";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
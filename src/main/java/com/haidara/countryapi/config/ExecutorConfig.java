@@ -0,0 +1,111 @@
+package com.haidara.countryapi.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${app.refresh.upstream-threads:4}")
+    private int upstreamThreads;
+
+    /** platform: Tomcat's worker pool and pooled upstream threads; virtual: a virtual thread per task (Java 21+) */
+    @Value("${app.execution.mode:platform}")
+    private String executionMode;
+
+    /** Runs upstream fetches so the countries and exchange-rate calls overlap */
+    @Bean
+    public TaskExecutor upstreamExecutor() {
+        ThreadFactory virtual = virtualThreadFactory("upstream-");
+        if (virtual != null) return new SimpleAsyncTaskExecutor(virtual);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(upstreamThreads);
+        executor.setMaxPoolSize(upstreamThreads);
+        executor.setQueueCapacity(16);
+        executor.setThreadNamePrefix("upstream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /** In virtual mode every request is handled on its own virtual thread instead of Tomcat's worker pool */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> requestExecutorCustomizer() {
+        return handler -> {
+            ThreadFactory virtual = virtualThreadFactory("http-");
+            if (virtual != null) handler.setExecutor(new SimpleAsyncTaskExecutor(virtual));
+        };
+    }
+
+    /** Single worker for refresh jobs; concurrent requests coalesce rather than queue */
+    @Bean
+    public ThreadPoolTaskExecutor refreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /** Encodes change events and writes them to /countries/changes subscribers, in order */
+    @Bean
+    public ThreadPoolTaskExecutor changesExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("changes-");
+        executor.initialize();
+        return executor;
+    }
+
+    /** Renders the summary image off the request and refresh paths */
+    @Bean
+    public ThreadPoolTaskExecutor imageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("image-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Factory for named virtual threads when virtual mode is selected, or null for platform threads.
+     * Looked up reflectively so the service still builds for and runs on Java 17, where it falls back.
+     */
+    private ThreadFactory virtualThreadFactory(String prefix) {
+        switch (executionMode) {
+            case "platform":
+                return null;
+            case "virtual":
+                break;
+            default:
+                throw new IllegalStateException("app.execution.mode must be platform or virtual, not " + executionMode);
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads need Java 21 or later (running {}); using platform threads for {}",
+                    Runtime.version().feature(), prefix);
+            return null;
+        }
+    }
+}
@@ -1,27 +1,84 @@
 package com.haidara.countryapi.config;
 
+import com.haidara.countryapi.service.UpstreamDeadlines;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
-    
+
     @Value("${app.external.timeout:10000}")
     private int timeout;
-    
+
+    @Value("${app.http.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${app.http.max-connections-per-route:5}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${app.http.keep-alive:30000}")
+    private long keepAlive;
+
+    /**
+     * Built from Boot's builder so upstream calls are timed as http.client.requests. Requests are
+     * registered with {@link UpstreamDeadlines} so an attempt past its deadline can be aborted mid-body.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate(clientHttpRequestFactory());
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient upstreamHttpClient,
+                                     UpstreamDeadlines deadlines) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(upstreamHttpClient) {
+                    @Override
+                    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+                        if (request instanceof Cancellable cancellable) deadlines.register(cancellable);
+                    }
+                })
+                .build();
     }
-    
-    private ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(timeout);
-        factory.setReadTimeout(timeout);
-        return factory;
+
+    /**
+     * Pooled keep-alive client; gzip/deflate responses are decoded transparently, after
+     * {@link UpstreamMetricsInterceptor} has counted their wire bytes. The timeout bounds each attempt
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(timeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(timeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(timeout))
+                        .build())
+                .addResponseInterceptorLast(new UpstreamMetricsInterceptor(meterRegistry))
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive))
+                // Retries belong to UpstreamGuard, which applies backoff, a budget and the circuit breaker
+                .disableAutomaticRetries()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive))
+                .evictExpiredConnections()
+                .build();
     }
 }
@@ -0,0 +1,104 @@
+package com.haidara.countryapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.RouteInfo;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the body bytes received from each upstream, tagged by host. Registered as an HttpClient
+ * response interceptor, which runs before gzip/deflate decoding, so compressed bodies are counted
+ * as they arrived on the wire. A body is recorded once it is read to the end or closed.
+ */
+public class UpstreamMetricsInterceptor implements HttpResponseInterceptor {
+
+    private final MeterRegistry registry;
+
+    public UpstreamMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+        if (!(response instanceof ClassicHttpResponse classic) || classic.getEntity() == null) return;
+        RouteInfo route = HttpClientContext.adapt(context).getHttpRoute();
+        DistributionSummary bytes = DistributionSummary.builder("upstream.response.size")
+                .description("Body bytes received from upstream responses, before content decoding")
+                .baseUnit("bytes")
+                .tag("host", route != null ? route.getTargetHost().getHostName() : "unknown")
+                .register(registry);
+        classic.setEntity(new CountingEntity(classic.getEntity(), bytes));
+    }
+
+    private static final class CountingEntity extends HttpEntityWrapper {
+        private final DistributionSummary bytes;
+        private CountingStream content;
+        private boolean recorded;
+
+        CountingEntity(HttpEntity delegate, DistributionSummary bytes) {
+            super(delegate);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            if (content == null) content = new CountingStream(super.getContent(), this);
+            return content;
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            super.close();
+        }
+
+        synchronized void record() {
+            if (recorded || content == null) return;
+            recorded = true;
+            bytes.record(content.count);
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+        private final CountingEntity entity;
+        private long count;
+
+        CountingStream(InputStream in, CountingEntity entity) {
+            super(in);
+            this.entity = entity;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            else entity.record();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            else if (n < 0) entity.record();
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entity.record();
+            super.close();
+        }
+    }
+}
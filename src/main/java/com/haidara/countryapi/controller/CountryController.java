@@ -1,59 +1,142 @@
 package com.haidara.countryapi.controller;
 
-import com.haidara.countryapi.model.Country;
+import com.haidara.countryapi.model.CountryBatchRequest;
+import com.haidara.countryapi.service.ClusterNode;
+import com.haidara.countryapi.service.ContentCodings;
+import com.haidara.countryapi.service.CountryChangeFeed;
 import com.haidara.countryapi.service.CountryService;
+import com.haidara.countryapi.service.CountryStatsService;
+import com.haidara.countryapi.service.ETags;
 import com.haidara.countryapi.service.ImageService;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import com.haidara.countryapi.service.JsonResponseCache;
+import com.haidara.countryapi.service.RateHistoryService;
+import com.haidara.countryapi.service.RefreshJob;
+import com.haidara.countryapi.service.RefreshJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.File;
-import java.util.List;
+import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("")
 public class CountryController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     
     private final CountryService countryService;
     private final ImageService imageService;
+    private final RefreshJobService refreshJobService;
+    private final CountryStatsService statsService;
+    private final RateHistoryService rateHistoryService;
+    private final CountryChangeFeed changeFeed;
+    private final ClusterNode clusterNode;
+
+    @Value("${app.refresh.wait-timeout:60000}")
+    private long refreshWaitTimeout;
     
-    public CountryController(CountryService countryService, ImageService imageService) {
+    public CountryController(CountryService countryService, ImageService imageService,
+                             RefreshJobService refreshJobService, CountryStatsService statsService,
+                             RateHistoryService rateHistoryService, CountryChangeFeed changeFeed,
+                             ClusterNode clusterNode) {
         this.countryService = countryService;
         this.imageService = imageService;
+        this.refreshJobService = refreshJobService;
+        this.statsService = statsService;
+        this.rateHistoryService = rateHistoryService;
+        this.changeFeed = changeFeed;
+        this.clusterNode = clusterNode;
     }
     
+    /** With {@code wait=true} the request thread is released while the refresh runs */
     @PostMapping("/countries/refresh")
-    public ResponseEntity<?> refreshCountries() {
+    public DeferredResult<ResponseEntity<?>> refreshCountries(@RequestParam(defaultValue = "false") boolean wait) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(refreshWaitTimeout,
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Refresh did not finish in time")));
+        if (clusterNode.isFollower()) {
+            result.setResult(notLeader());
+            return result;
+        }
         try {
-            countryService.refreshCountries();
-            return ResponseEntity.ok(Map.of("message", "Countries refreshed successfully"));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            RefreshJobService.Submission submission = refreshJobService.submit("api");
+            RefreshJob job = submission.job();
+
+            if (wait) {
+                // Legacy synchronous behaviour for scripts that expect the result in the response
+                job.getCompletion().whenComplete((done, error) -> result.setResult(refreshOutcome(done, error)));
+                return result;
+            }
+
+            String statusUrl = "/countries/refresh/" + job.getId();
+            result.setResult(ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(statusUrl))
                 .body(Map.of(
-                    "error", "External data source unavailable",
-                    "details", e.getMessage()
-                ));
+                    "job_id", job.getId(),
+                    "status", job.getStatus(),
+                    "coalesced", submission.coalesced(),
+                    "status_url", statusUrl
+                )));
         } catch (Exception e) {
+            result.setResult(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error")));
+        }
+        return result;
+    }
+
+    private static ResponseEntity<?> refreshOutcome(RefreshJob job, Throwable error) {
+        if (error != null) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Internal server error"));
         }
+        if (job.getStatus() == RefreshJob.Status.FAILED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of(
+                    "error", "External data source unavailable",
+                    "details", job.getError()
+                ));
+        }
+        return ResponseEntity.ok(Map.of("message", job.getStatus() == RefreshJob.Status.SUCCEEDED
+                ? "Countries refreshed successfully"
+                : "Countries already up to date"));
+    }
+
+    @GetMapping("/countries/refresh/{jobId}")
+    public ResponseEntity<?> getRefreshJob(@PathVariable String jobId) {
+        Optional<RefreshJob> job = refreshJobService.getJob(jobId);
+        if (job.isPresent()) {
+            return ResponseEntity.ok(job.get());
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Refresh job not found"));
+        }
     }
     
     @GetMapping("/countries")
     public ResponseEntity<?> getCountries(
             @RequestParam(required = false) String region,
             @RequestParam(required = false) String currency,
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
         try {
-            List<Country> countries = countryService.getAllCountries(region, currency, sort);
-            return ResponseEntity.ok(countries);
+            JsonResponseCache.CachedJson json = countryService.getCountriesJson(
+                    region, currency, sort, limit, cursor, fields);
+            return jsonResponse(json, ifNoneMatch, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Internal server error"));
@@ -61,11 +144,14 @@ public class CountryController {
     }
     
     @GetMapping("/countries/{name}")
-    public ResponseEntity<?> getCountryByName(@PathVariable String name) {
+    public ResponseEntity<?> getCountryByName(
+            @PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Optional<Country> country = countryService.getCountryByName(name);
+            Optional<JsonResponseCache.CachedJson> country = countryService.getCountryJson(name);
             if (country.isPresent()) {
-                return ResponseEntity.ok(country.get());
+                return jsonResponse(country.get(), ifNoneMatch, acceptEncoding);
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Country not found"));
@@ -76,8 +162,139 @@ public class CountryController {
         }
     }
     
+    @GetMapping(value = "/countries/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping("/countries/search")
+    public ResponseEntity<?> searchCountries(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(name = "max_edits", required = false) Integer maxEdits) {
+        try {
+            return ResponseEntity.ok(countryService.searchCountries(q, limit, maxEdits));
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @PostMapping("/countries/batch")
+    public ResponseEntity<?> batchLookup(@RequestBody CountryBatchRequest request) {
+        try {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(countryService.lookupBatch(request));
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/countries/stats")
+    public ResponseEntity<?> getStats(
+            @RequestParam(required = false) String percentiles,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            return jsonResponse(statsService.getSummaryJson(percentiles), ifNoneMatch, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/countries/stats/{group:regions|currencies}")
+    public ResponseEntity<?> getAllGroupStats(
+            @PathVariable String group,
+            @RequestParam(required = false) String percentiles,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            String by = group.equals("regions") ? "region" : "currency";
+            return jsonResponse(statsService.getGroupsJson(by, percentiles), ifNoneMatch, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/countries/stats/{group:regions|currencies}/{key}")
+    public ResponseEntity<?> getGroupStats(
+            @PathVariable String group,
+            @PathVariable String key,
+            @RequestParam(required = false) String percentiles,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            String by = group.equals("regions") ? "region" : "currency";
+            Optional<JsonResponseCache.CachedJson> stats = statsService.getGroupJson(by, key, percentiles);
+            if (stats.isPresent()) {
+                return jsonResponse(stats.get(), ifNoneMatch, acceptEncoding);
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", by.equals("region") ? "Region not found" : "Currency not found"));
+            }
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/countries/stats/top")
+    public ResponseEntity<?> getTopCountries(
+            @RequestParam(defaultValue = "estimated_gdp") String field,
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            return jsonResponse(statsService.getTopJson(field, n, order), ifNoneMatch, acceptEncoding);
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
+    @GetMapping("/currencies/{code}/rates")
+    public ResponseEntity<?> getRateHistory(
+            @PathVariable String code,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String step) {
+        try {
+            Optional<Map<String, Object>> rates = rateHistoryService.getRates(code, from, to, step);
+            if (rates.isPresent()) {
+                return ResponseEntity.ok(rates.get());
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Currency not found"));
+            }
+        } catch (IllegalArgumentException e) {
+            return invalidQuery(e);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal server error"));
+        }
+    }
+
     @DeleteMapping("/countries/{name}")
     public ResponseEntity<?> deleteCountry(@PathVariable String name) {
+        if (clusterNode.isFollower()) return notLeader();
         try {
             countryService.deleteCountryByName(name);
             return ResponseEntity.ok(Map.of("message", "Country deleted successfully"));
@@ -102,23 +319,79 @@ public class CountryController {
     }
     
     @GetMapping("/countries/image")
-    public ResponseEntity<?> getSummaryImage() {
+    public ResponseEntity<?> getSummaryImage(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            File imageFile = imageService.getSummaryImage();
-            if (imageFile != null && imageFile.exists()) {
-                Resource resource = new FileSystemResource(imageFile);
-                
-                return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"summary.png\"")
-                    .body(resource);
-            } else {
+            ImageService.SummaryImage image = imageService.getSummaryImage();
+            if (image == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Summary image not found"));
             }
+            CacheControl cacheControl = CacheControl.noCache().cachePublic();
+
+            if (ETags.matches(ifNoneMatch, image.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(image.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .eTag(image.etag())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"summary.png\"")
+                .body(image.png());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Internal server error"));
         }
     }
+
+    /** Writes go to the cluster leader; followers only serve reads */
+    private ResponseEntity<?> notLeader() {
+        String leader = clusterNode.getLeaderId();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of(
+                "error", "Not the cluster leader",
+                "details", leader != null ? "Send refreshes and deletes to " + leader : "No leader elected yet"
+            ));
+    }
+
+    private static ResponseEntity<?> invalidQuery(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(Map.of(
+                "error", "Invalid query",
+                "details", e.getMessage()
+            ));
+    }
+
+    /**
+     * Write a pre-encoded JSON body as-is, honouring gzip negotiation and If-None-Match. The gzip body gets
+     * its own ETag; a tag for either coding revalidates, since both carry the same content. Both variants
+     * carry {@code Vary: Accept-Encoding}.
+     */
+    private static ResponseEntity<?> jsonResponse(JsonResponseCache.CachedJson json,
+                                                  String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = json.gzipped() != null && ContentCodings.accepts(acceptEncoding, "gzip");
+        String etag = gzip ? ETags.forCoding(json.etag(), "gzip") : json.etag();
+        HttpHeaders headers = new HttpHeaders();
+        if (json.nextCursor() != null) headers.set(NEXT_CURSOR_HEADER, json.nextCursor());
+        if (ETags.matches(ifNoneMatch, json.etag())
+                || (json.gzipped() != null && ETags.matches(ifNoneMatch, ETags.forCoding(json.etag(), "gzip")))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .headers(headers)
+                .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(etag)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .headers(headers);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(json.gzipped());
+        }
+        return response.body(json.body());
+    }
 }
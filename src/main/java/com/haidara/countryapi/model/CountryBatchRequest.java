@@ -0,0 +1,22 @@
+package com.haidara.countryapi.model;
+
+import java.util.List;
+
+/** Body of {@code POST /countries/batch}: names and/or currency codes to resolve in one call. */
+public class CountryBatchRequest {
+
+    private List<String> names;
+    private List<String> currencies;
+    private List<String> fields;
+
+    public CountryBatchRequest() {}
+
+    public List<String> getNames() { return names; }
+    public void setNames(List<String> names) { this.names = names; }
+
+    public List<String> getCurrencies() { return currencies; }
+    public void setCurrencies(List<String> currencies) { this.currencies = currencies; }
+
+    public List<String> getFields() { return fields; }
+    public void setFields(List<String> fields) { this.fields = fields; }
+}
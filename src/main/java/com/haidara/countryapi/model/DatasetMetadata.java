@@ -0,0 +1,29 @@
+package com.haidara.countryapi.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+/** Dataset-level facts, one row per dataset, so a refresh never has to touch unchanged country rows. */
+@Entity
+public class DatasetMetadata {
+
+    public static final String COUNTRIES = "countries";
+
+    @Id
+    private String dataset;
+    private LocalDateTime lastRefreshedAt;
+
+    public DatasetMetadata() {}
+
+    public DatasetMetadata(String dataset, LocalDateTime lastRefreshedAt) {
+        this.dataset = dataset;
+        this.lastRefreshedAt = lastRefreshedAt;
+    }
+
+    public String getDataset() { return dataset; }
+    public void setDataset(String dataset) { this.dataset = dataset; }
+
+    public LocalDateTime getLastRefreshedAt() { return lastRefreshedAt; }
+    public void setLastRefreshedAt(LocalDateTime lastRefreshedAt) { this.lastRefreshedAt = lastRefreshedAt; }
+}
@@ -1,5 +1,6 @@
 package com.haidara.countryapi.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Map;
 
@@ -7,6 +8,14 @@ public class ExchangeRateResponse {
     @JsonProperty("rates")
     private Map<String, Double> rates;
 
+    /** Epoch seconds of the provider's last rate update, when it reports one */
+    @JsonProperty("time_last_update_unix")
+    @JsonAlias("time_last_updated")
+    private Long lastUpdated;
+
     public Map<String, Double> getRates() { return rates; }
     public void setRates(Map<String, Double> rates) { this.rates = rates; }
+
+    public Long getLastUpdated() { return lastUpdated; }
+    public void setLastUpdated(Long lastUpdated) { this.lastUpdated = lastUpdated; }
 }
@@ -22,6 +22,19 @@ public class ExternalCountry {
 
     private Map<String, Object> currencies;
 
+    /** Build from already-extracted values, as produced by the streaming payload reader. */
+    public static ExternalCountry of(String name, String capital, String region, Long population,
+                                     String flagPng, String currencyCode) {
+        ExternalCountry ext = new ExternalCountry();
+        if (name != null) ext.nameObj = Map.of("common", name);
+        if (capital != null) ext.capitalList = List.of(capital);
+        ext.region = region;
+        ext.population = population;
+        if (flagPng != null) ext.flags = Map.of("png", flagPng);
+        if (currencyCode != null) ext.currencies = Map.of(currencyCode, Map.of());
+        return ext;
+    }
+
     // === Derived getters ===
 
     public String getName() {
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CountryRepository extends JpaRepository<Country, Long> {
+public interface CountryRepository extends JpaRepository<Country, String> {
     Optional<Country> findByNameIgnoreCase(String name);
     List<Country> findByRegionIgnoreCase(String region);
     List<Country> findByCurrencyCodeIgnoreCase(String currencyCode);
@@ -0,0 +1,9 @@
+package com.haidara.countryapi.repository;
+
+import com.haidara.countryapi.model.DatasetMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DatasetMetadataRepository extends JpaRepository<DatasetMetadata, String> {
+}
@@ -0,0 +1,73 @@
+package com.haidara.countryapi.service;
+
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker for one upstream. After {@code failureThreshold} failures in a
+ * row calls are rejected for {@code openDuration}; then a single trial call decides whether to close
+ * again or stay open for another period.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    /** Thrown instead of calling an upstream whose breaker is open. */
+    static final class OpenException extends RuntimeException {
+        OpenException(String upstream, long retryInMillis) {
+            super("Circuit open for " + upstream + " upstream, next attempt in " + retryInMillis + " ms");
+        }
+    }
+
+    private final String upstream;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(String upstream, int failureThreshold, Duration openDuration) {
+        this.upstream = upstream;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /** Admit a call or throw {@link OpenException}; an admitted call must end in onSuccess or onFailure. */
+    synchronized void acquire() {
+        if (state == State.OPEN) {
+            long waited = System.nanoTime() - openedAt;
+            if (waited < openNanos) throw new OpenException(upstream, (openNanos - waited) / 1_000_000);
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) throw new OpenException(upstream, 0);
+            trialInFlight = true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /** An admitted call ended in a way that says nothing about upstream health. */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) trialInFlight = false;
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+}
@@ -0,0 +1,115 @@
+package com.haidara.countryapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This instance's role when {@code app.cluster.enabled=true}: the node holding the {@link ClusterStore}
+ * lease refreshes and publishes snapshots, every other node follows. With clustering off every
+ * instance acts as its own leader and nothing is published.
+ */
+@Component
+public class ClusterNode {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterNode.class);
+
+    private final ClusterStore store;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration leaseTtl;
+
+    private volatile boolean leader;
+    private volatile String leaderId;
+    private volatile long generation;
+
+    public ClusterNode(ClusterStore store,
+                       @Value("${app.cluster.enabled:false}") boolean enabled,
+                       @Value("${app.cluster.node-id:}") String nodeId,
+                       @Value("${app.cluster.lease-ttl:PT15S}") Duration leaseTtl) {
+        this.store = store;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.leaseTtl = leaseTtl;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** True when another node holds, or may hold, the lease: refreshes and deletes must go there. */
+    public boolean isFollower() {
+        return enabled && !leader;
+    }
+
+    public String getLeaderId() {
+        return leaderId;
+    }
+
+    /** Generation of the snapshot this node last published or applied. */
+    public long getGeneration() {
+        return generation;
+    }
+
+    void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /** Take or renew the lease; returns true when this node has just become leader. */
+    boolean heartbeat() {
+        String holder = store.acquireLease(nodeId, leaseTtl);
+        boolean wasLeader = leader;
+        leader = nodeId.equals(holder);
+        leaderId = holder;
+        if (leader != wasLeader) logger.info("Node {} is now {} (leader: {})", nodeId, leader ? "leader" : "follower", holder);
+        return leader && !wasLeader;
+    }
+
+    /** Share a new dataset with the followers; a no-op unless this node is the leader. */
+    void publish(CountrySnapshotCodec.Persisted state) {
+        if (!enabled || !leader) return;
+        long published = store.publish(nodeId, state);
+        if (published < 0) {
+            leader = false;
+            logger.warn("Node {} lost the leader lease before publishing; the snapshot stays local", nodeId);
+            return;
+        }
+        generation = published;
+        logger.info("Published snapshot generation {} with {} countries", published, state.snapshot().size());
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node_id", nodeId);
+        status.put("role", leader ? "leader" : "follower");
+        status.put("leader_id", leaderId);
+        status.put("generation", generation);
+        return status;
+    }
+
+    @PreDestroy
+    void release() {
+        if (enabled && leader) {
+            leader = false;
+            store.releaseLease(nodeId);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
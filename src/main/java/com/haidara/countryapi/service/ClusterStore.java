@@ -0,0 +1,34 @@
+package com.haidara.countryapi.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Storage shared by every instance in cluster mode: a leader lease and the versioned snapshots
+ * the leader publishes. {@link FileClusterStore} keeps both in a shared directory.
+ */
+public interface ClusterStore {
+
+    /** A published snapshot and the generation it was published as. */
+    record Published(long generation, CountrySnapshotCodec.Persisted state) {}
+
+    /**
+     * Take the lease for {@code nodeId} when it is free or expired, or extend it when {@code nodeId}
+     * already holds it. Returns the holder after the attempt.
+     */
+    String acquireLease(String nodeId, Duration ttl);
+
+    /** Give the lease up early so another node can take over without waiting for it to expire. */
+    void releaseLease(String nodeId);
+
+    /**
+     * Store {@code state} as the next generation, provided {@code nodeId} still holds an unexpired lease.
+     * Returns the new generation, or -1 when the lease was lost.
+     */
+    long publish(String nodeId, CountrySnapshotCodec.Persisted state);
+
+    /** Generation of the newest published snapshot, or 0 when nothing has been published. */
+    long latestGeneration();
+
+    Optional<Published> readLatest();
+}
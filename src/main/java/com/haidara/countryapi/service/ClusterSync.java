@@ -0,0 +1,55 @@
+package com.haidara.countryapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cluster heartbeat, enabled with {@code app.cluster.enabled=true}: renews or contends for the lease,
+ * then hot-swaps in any snapshot generation newer than the one this node holds. Followers stay
+ * current this way; a newly elected leader first catches up with its predecessor's last publish.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterSync.class);
+
+    private final ClusterNode node;
+    private final ClusterStore store;
+    private final CountryService countryService;
+    private final CountrySnapshotStore snapshotStore;
+
+    public ClusterSync(ClusterNode node, ClusterStore store, CountryService countryService,
+                       CountrySnapshotStore snapshotStore) {
+        this.node = node;
+        this.store = store;
+        this.countryService = countryService;
+        this.snapshotStore = snapshotStore;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.cluster.poll-interval:PT2S}")
+    public void sync() {
+        try {
+            node.heartbeat();
+            if (store.latestGeneration() <= node.getGeneration()) return;
+
+            Optional<ClusterStore.Published> latest = store.readLatest();
+            if (latest.isEmpty() || latest.get().generation() <= node.getGeneration()) return;
+            ClusterStore.Published published = latest.get();
+            long start = System.nanoTime();
+            CountrySnapshot snapshot = countryService.restore(published.state());
+            snapshotStore.save(published.state());
+            node.setGeneration(published.generation());
+            logger.info("Applied cluster snapshot generation {} as v{} with {} countries in {} ms",
+                    published.generation(), snapshot.getVersion(), snapshot.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.warn("Cluster sync failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.haidara.countryapi.service;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Accept-Encoding negotiation (RFC 9110 section 12.5.3). */
+public final class ContentCodings {
+
+    private static final Pattern QVALUE = Pattern.compile("0(\\.\\d{0,3})?|1(\\.0{0,3})?");
+
+    private ContentCodings() {}
+
+    /**
+     * True when {@code acceptEncoding} gives {@code coding} a weight above zero: its own entry when listed
+     * (or its {@code x-} alias), otherwise the {@code *} entry. A missing header accepts nothing but identity,
+     * and an element with a malformed weight counts as q=0.
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) return false;
+        double listed = -1;
+        double wildcard = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(coding) || name.equals("x-" + coding)) listed = Math.max(listed, weight(parts));
+            else if (name.equals("*")) wildcard = Math.max(wildcard, weight(parts));
+        }
+        return (listed >= 0 ? listed : wildcard) > 0;
+    }
+
+    private static double weight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() < 2 || !param.regionMatches(true, 0, "q=", 0, 2)) continue;
+            String value = param.substring(2).trim();
+            return QVALUE.matcher(value).matches() ? Double.parseDouble(value) : 0;
+        }
+        return 1;
+    }
+}
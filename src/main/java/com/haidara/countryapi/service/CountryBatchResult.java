@@ -0,0 +1,64 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Rows resolved by a batch lookup against one snapshot. Serializes itself straight from the
+ * snapshot columns, so the response is streamed to the client without building Country objects.
+ */
+public final class CountryBatchResult implements JsonSerializable {
+
+    private final CountrySnapshot snapshot;
+    private final int[] rows;
+    private final List<CountryField> fields;
+    private final List<String> missingNames;
+    private final List<String> missingCurrencies;
+
+    CountryBatchResult(CountrySnapshot snapshot, int[] rows, List<CountryField> fields,
+                       List<String> missingNames, List<String> missingCurrencies) {
+        this.snapshot = snapshot;
+        this.rows = rows;
+        this.fields = fields;
+        this.missingNames = missingNames;
+        this.missingCurrencies = missingCurrencies;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    @Override
+    public void serialize(JsonGenerator json, SerializerProvider provider) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("countries");
+        for (int row : rows) {
+            json.writeStartObject();
+            for (CountryField field : fields) field.write(json, snapshot, row);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeObjectFieldStart("not_found");
+        writeStrings(json, "names", missingNames);
+        writeStrings(json, "currencies", missingCurrencies);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator json, String name, List<String> values) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (String value : values) json.writeString(value);
+        json.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator json, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        serialize(json, provider);
+    }
+}
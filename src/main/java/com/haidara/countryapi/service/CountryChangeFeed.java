@@ -0,0 +1,201 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pushes one {@code change} event per snapshot swap to {@code /countries/changes} subscribers,
+ * holding the inserted, updated and removed countries against the previous snapshot.
+ * Each event is encoded once and kept in a short history so reconnecting clients can resume
+ * from their {@code Last-Event-ID}. Event ids are {@code <epoch>-<version>}: versions restart with
+ * the process and differ between nodes, so an id from another epoch always gets a {@code reset}. All sends, replays and history updates run on
+ * {@code changesExecutor}, so subscribers see events in version order and refreshes never wait on them.
+ */
+@Service
+public class CountryChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(CountryChangeFeed.class);
+
+    private record Change(long version, long previousVersion, String json) {}
+
+    private final CountrySnapshotHolder snapshotHolder;
+    private final Executor changesExecutor;
+    private final ObjectMapper objectMapper;
+    // Random per process, so ids minted by an earlier run or another node never match
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    // Touched only on changesExecutor
+    private final ArrayDeque<Change> history = new ArrayDeque<>();
+    private long deliveredVersion = -1;
+
+    @Value("${app.changes.history:100}")
+    private int historySize;
+
+    @Value("${app.changes.timeout:PT30M}")
+    private Duration timeout;
+
+    public CountryChangeFeed(CountrySnapshotHolder snapshotHolder,
+                             @Qualifier("changesExecutor") Executor changesExecutor, ObjectMapper objectMapper) {
+        this.snapshotHolder = snapshotHolder;
+        this.changesExecutor = changesExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CountrySnapshotPublishedEvent event) {
+        changesExecutor.execute(() -> {
+            Change change = encode(event.previous(), event.current());
+            history.addLast(change);
+            while (history.size() > historySize) history.removeFirst();
+            deliveredVersion = change.version();
+            for (SseEmitter subscriber : subscribers) send(subscriber, change);
+        });
+    }
+
+    /**
+     * Open a stream. With a {@code lastEventId} from this epoch the changes after that version are
+     * replayed first when they are still held; otherwise the stream starts with a {@code reset} event carrying the current
+     * version, telling the client to reload {@code GET /countries}.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        Long since = parseVersion(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        changesExecutor.execute(() -> {
+            // The last version already sent to subscribers; anything newer is still queued behind this task
+            long current = deliveredVersion >= 0 ? deliveredVersion : snapshotHolder.get().getVersion();
+            List<Change> replay = since == null ? null : replayAfter(since, current);
+            try {
+                if (replay == null) {
+                    emitter.send(SseEmitter.event().id(eventId(current)).name("reset")
+                            .data("{\"version\":" + current + "}"));
+                } else {
+                    for (Change change : replay) sendOrThrow(emitter, change);
+                }
+                subscribers.add(emitter);
+            } catch (IOException | IllegalStateException e) {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    /** Keeps idle connections from being dropped by proxies and notices clients that went away. */
+    @Scheduled(fixedDelayString = "${app.changes.heartbeat:PT30S}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        changesExecutor.execute(() -> {
+            for (SseEmitter subscriber : subscribers) {
+                try {
+                    subscriber.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    drop(subscriber);
+                }
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Held changes after {@code since}, empty when already current, or null when they cannot be replayed. */
+    private List<Change> replayAfter(long since, long current) {
+        if (since == current) return List.of();
+        List<Change> replay = null;
+        for (Iterator<Change> it = history.iterator(); it.hasNext(); ) {
+            Change change = it.next();
+            if (replay == null && change.previousVersion() == since) replay = new ArrayList<>();
+            if (replay != null) replay.add(change);
+        }
+        if (replay == null || replay.get(replay.size() - 1).version() != current) return null;
+        return replay;
+    }
+
+    private void send(SseEmitter subscriber, Change change) {
+        try {
+            sendOrThrow(subscriber, change);
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber);
+        }
+    }
+
+    private void sendOrThrow(SseEmitter subscriber, Change change) throws IOException {
+        subscriber.send(SseEmitter.event().id(eventId(change.version())).name("change").data(change.json()));
+    }
+
+    private void drop(SseEmitter subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.complete();
+        logger.debug("Dropped change stream subscriber");
+    }
+
+    private Change encode(CountrySnapshot previous, CountrySnapshot current) {
+        CountrySnapshotDiff diff = CountrySnapshotDiff.between(previous, current);
+        StringWriter out = new StringWriter(64 + diff.changeCount() * 256);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("version", current.getVersion());
+            json.writeNumberField("previous_version", previous.getVersion());
+            writeRows(json, "inserted", current, diff.getInserted());
+            writeRows(json, "updated", current, diff.getUpdated());
+            json.writeArrayFieldStart("removed");
+            for (String name : diff.getRemoved()) json.writeString(name);
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Change(current.getVersion(), previous.getVersion(), out.toString());
+    }
+
+    private static void writeRows(JsonGenerator json, String name, CountrySnapshot snapshot, int[] rows)
+            throws IOException {
+        json.writeArrayFieldStart(name);
+        for (int row : rows) {
+            json.writeStartObject();
+            for (CountryField field : CountryField.ALL) field.write(json, snapshot, row);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private String eventId(long version) {
+        return epoch + "-" + version;
+    }
+
+    /** Version from an id of this epoch; null for anything else, which starts over with a reset. */
+    private Long parseVersion(String lastEventId) {
+        if (lastEventId == null) return null;
+        String id = lastEventId.trim();
+        if (!id.startsWith(epoch + "-")) return null;
+        try {
+            return Long.parseLong(id.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
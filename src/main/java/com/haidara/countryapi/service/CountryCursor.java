@@ -0,0 +1,82 @@
+package com.haidara.countryapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a {@code GET /countries} listing: the sort key and name of the last row
+ * returned. Pages resume after that key rather than at an offset, so they stay stable when rows
+ * are added or removed between requests.
+ */
+record CountryCursor(CountrySort sort, double gdp, long population, String name) {
+
+    private static final String SEPARATOR = "\n";
+
+    /** Cursor pointing just after {@code row} in {@code sort} order. */
+    static CountryCursor after(CountrySnapshot snapshot, int row, CountrySort sort) {
+        return new CountryCursor(sort, snapshot.estimatedGdp(row), snapshot.population(row), snapshot.name(row));
+    }
+
+    String encode() {
+        String key = "";
+        if (sort == CountrySort.GDP_ASC || sort == CountrySort.GDP_DESC) key = Long.toHexString(Double.doubleToLongBits(gdp));
+        else if (sort != null) key = Long.toString(population);
+        String raw = paramOf(sort) + SEPARATOR + key + SEPARATOR + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decode a cursor, rejecting one issued for a different sort order. */
+    static CountryCursor decode(String cursor, CountrySort expectedSort) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3) throw new IllegalArgumentException("Invalid cursor");
+        if (!parts[0].equals(paramOf(expectedSort)))
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+
+        double gdp = Double.NaN;
+        long population = 0;
+        try {
+            if (expectedSort == CountrySort.GDP_ASC || expectedSort == CountrySort.GDP_DESC)
+                gdp = Double.longBitsToDouble(Long.parseUnsignedLong(parts[1], 16));
+            else if (expectedSort != null)
+                population = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new CountryCursor(expectedSort, gdp, population, parts[2]);
+    }
+
+    private static String paramOf(CountrySort sort) {
+        return sort == null ? "name" : sort.getParam();
+    }
+
+    /** Index of the first entry of {@code rows} (in {@code sort} order) that comes after this cursor. */
+    int startIn(CountrySnapshot snapshot, int[] rows) {
+        int lo = 0;
+        int hi = rows.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareTo(snapshot, rows[mid]) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Order of {@code row} relative to this cursor, consistent with {@link CountryIndex} orderings. */
+    private int compareTo(CountrySnapshot snapshot, int row) {
+        int c = 0;
+        if (sort != null) {
+            c = switch (sort) {
+                case GDP_ASC -> Double.compare(snapshot.estimatedGdp(row), gdp);
+                case GDP_DESC -> Double.compare(gdp, snapshot.estimatedGdp(row));
+                case POPULATION_ASC -> Long.compare(snapshot.population(row), population);
+                case POPULATION_DESC -> Long.compare(population, snapshot.population(row));
+            };
+        }
+        return c != 0 ? c : snapshot.name(row).compareTo(name);
+    }
+}
@@ -0,0 +1,90 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fields selectable with {@code GET /countries?fields=}. Each one writes straight from the
+ * snapshot columns under the same JSON name the full {@code Country} response uses.
+ */
+public enum CountryField {
+    NAME("name"),
+    CAPITAL("capital"),
+    REGION("region"),
+    POPULATION("population"),
+    CURRENCY_CODE("currency_code"),
+    EXCHANGE_RATE("exchange_rate"),
+    ESTIMATED_GDP("estimated_gdp"),
+    FLAG_URL("flagUrl", "flag_url"),
+    LAST_REFRESHED_AT("lastRefreshedAt", "last_refreshed_at");
+
+    /** Every field, in the order Jackson serializes {@code Country}. */
+    public static final List<CountryField> ALL = List.of(NAME, CAPITAL, REGION, POPULATION, FLAG_URL,
+            LAST_REFRESHED_AT, CURRENCY_CODE, EXCHANGE_RATE, ESTIMATED_GDP);
+
+    private final String jsonName;
+    private final String alias;
+
+    CountryField(String jsonName) {
+        this(jsonName, jsonName);
+    }
+
+    CountryField(String jsonName, String alias) {
+        this.jsonName = jsonName;
+        this.alias = alias;
+    }
+
+    public String getJsonName() { return jsonName; }
+
+    /** Parse a comma-separated list in request order, dropping duplicates; null means all fields. */
+    public static List<CountryField> parse(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        List<CountryField> parsed = new ArrayList<>();
+        for (String part : fields.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) continue;
+            CountryField field = fromName(name);
+            if (field == null) throw new IllegalArgumentException("Unknown field: " + name);
+            if (!parsed.contains(field)) parsed.add(field);
+        }
+        return parsed.isEmpty() ? null : parsed;
+    }
+
+    private static CountryField fromName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (CountryField field : values()) {
+            if (field.jsonName.toLowerCase(Locale.ROOT).equals(lower) || field.alias.equals(lower)) return field;
+        }
+        return null;
+    }
+
+    void write(JsonGenerator json, CountrySnapshot snapshot, int row) throws IOException {
+        json.writeFieldName(jsonName);
+        switch (this) {
+            case NAME -> json.writeString(snapshot.name(row));
+            case CAPITAL -> json.writeString(snapshot.capital(row));
+            case REGION -> json.writeString(snapshot.region(row));
+            case POPULATION -> {
+                long population = snapshot.population(row);
+                if (population == CountrySnapshot.NO_POPULATION) json.writeNull();
+                else json.writeNumber(population);
+            }
+            case CURRENCY_CODE -> json.writeString(snapshot.currencyCode(row));
+            case EXCHANGE_RATE -> writeDouble(json, snapshot.exchangeRate(row));
+            case ESTIMATED_GDP -> writeDouble(json, snapshot.estimatedGdp(row));
+            case FLAG_URL -> json.writeString(snapshot.flagUrl(row));
+            case LAST_REFRESHED_AT -> json.writeString(snapshot.refreshedAt(row) == null ? null
+                    : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(snapshot.refreshedAt(row)));
+        }
+    }
+
+    private static void writeDouble(JsonGenerator json, double value) throws IOException {
+        if (Double.isNaN(value)) json.writeNull();
+        else json.writeNumber(value);
+    }
+}
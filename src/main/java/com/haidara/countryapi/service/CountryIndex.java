@@ -0,0 +1,138 @@
+package com.haidara.countryapi.service;
+
+import java.util.*;
+
+/**
+ * Secondary indexes over a {@link CountrySnapshot}, built once per snapshot:
+ * a posting bitset per lower-cased region and currency code, a presorted
+ * row permutation per {@link CountrySort} (ties broken by row, i.e. by name)
+ * and a {@link CountryNameIndex} for lookups and search by name.
+ */
+public final class CountryIndex {
+
+    private static final BitSet NO_ROWS = new BitSet(0);
+
+    private final int size;
+    private final Map<String, BitSet> regionPostings;
+    private final Map<String, BitSet> currencyPostings;
+    private final int[][] orderings = new int[CountrySort.values().length][];
+    private final int[] byName;
+    private final CountryNameIndex names;
+
+    CountryIndex(CountrySnapshot snapshot) {
+        this.size = snapshot.size();
+        this.regionPostings = postings(snapshot, true);
+        this.currencyPostings = postings(snapshot, false);
+        this.names = new CountryNameIndex(snapshot);
+
+        Integer[] rows = new Integer[size];
+        byName = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[row] = row;
+            byName[row] = row;
+        }
+
+        orderings[CountrySort.GDP_ASC.ordinal()] =
+                sorted(rows, (a, b) -> Double.compare(snapshot.estimatedGdp(a), snapshot.estimatedGdp(b)));
+        orderings[CountrySort.GDP_DESC.ordinal()] =
+                sorted(rows, (a, b) -> Double.compare(snapshot.estimatedGdp(b), snapshot.estimatedGdp(a)));
+        orderings[CountrySort.POPULATION_ASC.ordinal()] =
+                sorted(rows, (a, b) -> Long.compare(snapshot.population(a), snapshot.population(b)));
+        orderings[CountrySort.POPULATION_DESC.ordinal()] =
+                sorted(rows, (a, b) -> Long.compare(snapshot.population(b), snapshot.population(a)));
+    }
+
+    private static Map<String, BitSet> postings(CountrySnapshot snapshot, boolean region) {
+        Map<String, BitSet> postings = new HashMap<>();
+        for (int row = 0; row < snapshot.size(); row++) {
+            String value = region ? snapshot.region(row) : snapshot.currencyCode(row);
+            if (value == null) continue;
+            postings.computeIfAbsent(normalize(value), k -> new BitSet(snapshot.size())).set(row);
+        }
+        return postings;
+    }
+
+    private static int[] sorted(Integer[] rows, Comparator<Integer> comparator) {
+        Integer[] copy = rows.clone();
+        // Arrays.sort on objects is stable, so equal keys stay in name order
+        Arrays.sort(copy, comparator);
+        int[] order = new int[copy.length];
+        for (int i = 0; i < copy.length; i++) order[i] = copy[i];
+        return order;
+    }
+
+    public CountryNameIndex getNames() {
+        return names;
+    }
+
+    static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /** Rows with the given region (ignoring case), or null when no filter applies. */
+    BitSet regionRows(String region) {
+        return region == null ? null : regionPostings.getOrDefault(normalize(region), NO_ROWS);
+    }
+
+    BitSet currencyRows(String currency) {
+        return currency == null ? null : currencyPostings.getOrDefault(normalize(currency), NO_ROWS);
+    }
+
+    /** Rows in the order defined by {@code sort}; callers must not modify the array. */
+    int[] ordering(CountrySort sort) {
+        return orderings[sort.ordinal()];
+    }
+
+    /**
+     * As {@link #select}, but returns the shared presorted ordering when no filter applies
+     * instead of copying it. Callers must not modify the array.
+     */
+    int[] view(String region, String currency, CountrySort sort) {
+        if (region == null && currency == null) return sort == null ? byName : ordering(sort);
+        return select(region, currency, sort);
+    }
+
+    /**
+     * Rows matching every non-null filter, in {@code sort} order or name order when
+     * {@code sort} is null. Only the result array is allocated.
+     */
+    public int[] select(String region, String currency, CountrySort sort) {
+        BitSet regionRows = regionRows(region);
+        BitSet currencyRows = currencyRows(currency);
+
+        int limit = size;
+        if (regionRows != null) limit = Math.min(limit, regionRows.cardinality());
+        if (currencyRows != null) limit = Math.min(limit, currencyRows.cardinality());
+
+        int[] result = new int[limit];
+        int count = 0;
+        if (limit == 0) return result;
+
+        if (sort != null) {
+            for (int row : ordering(sort)) {
+                if (accepts(regionRows, row) && accepts(currencyRows, row)) {
+                    result[count++] = row;
+                    if (count == limit) break;
+                }
+            }
+        } else if (regionRows == null && currencyRows == null) {
+            for (int row = 0; row < size; row++) result[count++] = row;
+        } else {
+            // Drive the scan from the smaller posting list and probe the other
+            BitSet driver = regionRows;
+            BitSet probe = currencyRows;
+            if (driver == null || (probe != null && probe.cardinality() < driver.cardinality())) {
+                driver = currencyRows;
+                probe = regionRows;
+            }
+            for (int row = driver.nextSetBit(0); row >= 0; row = driver.nextSetBit(row + 1)) {
+                if (accepts(probe, row)) result[count++] = row;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean accepts(BitSet rows, int row) {
+        return rows == null || rows.get(row);
+    }
+}
@@ -0,0 +1,135 @@
+package com.haidara.countryapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the refresh pipeline and the read paths.
+ * Read-path meters are created up front so a request never goes through the registry lookup.
+ */
+@Component
+public class CountryMetrics {
+
+    private static final String[] FILTERS = {"none", "region", "currency", "region+currency"};
+    private static final String[] SORTS = {"none", "gdp_desc", "gdp_asc", "population_desc", "population_asc"};
+
+    private final MeterRegistry registry;
+    private final Timer[][] queryTimers = new Timer[FILTERS.length][SORTS.length];
+    private final DistributionSummary[][] queryRows = new DistributionSummary[FILTERS.length][SORTS.length];
+    private final DistributionSummary responseBytes;
+    private final Timer lookupTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer imageRender;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    public CountryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (int f = 0; f < FILTERS.length; f++) {
+            for (int s = 0; s < SORTS.length; s++) {
+                queryTimers[f][s] = Timer.builder("countries.query")
+                        .description("Time to answer GET /countries from the snapshot")
+                        .tag("filter", FILTERS[f]).tag("sort", SORTS[s])
+                        .publishPercentileHistogram()
+                        .register(registry);
+                queryRows[f][s] = DistributionSummary.builder("countries.query.rows")
+                        .description("Rows in each GET /countries result")
+                        .tag("filter", FILTERS[f]).tag("sort", SORTS[s])
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+        }
+        responseBytes = DistributionSummary.builder("countries.response.size")
+                .description("Uncompressed JSON body size of country responses")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        lookupTimer = Timer.builder("countries.lookup")
+                .description("Time to answer GET /countries/{name} from the snapshot")
+                .publishPercentileHistogram()
+                .register(registry);
+        cacheHits = Counter.builder("countries.json.cache").tag("result", "hit").register(registry);
+        cacheMisses = Counter.builder("countries.json.cache").tag("result", "miss").register(registry);
+        imageRender = Timer.builder("countries.image.render")
+                .description("Summary image render time")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer queryTimer(String region, String currency, CountrySort sort) {
+        return queryTimers[filterIndex(region, currency)][sort == null ? 0 : sort.ordinal() + 1];
+    }
+
+    public void recordQueryRows(String region, String currency, CountrySort sort, int rows) {
+        queryRows[filterIndex(region, currency)][sort == null ? 0 : sort.ordinal() + 1].record(rows);
+    }
+
+    private static int filterIndex(String region, String currency) {
+        return (region != null ? 1 : 0) + (currency != null ? 2 : 0);
+    }
+
+    public Timer lookupTimer() {
+        return lookupTimer;
+    }
+
+    public void recordResponseSize(int bytes) {
+        responseBytes.record(bytes);
+    }
+
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    public Timer imageRenderTimer() {
+        return imageRender;
+    }
+
+    /** Circuit state of one upstream: 0 closed, 1 half-open, 2 open. */
+    public void registerCircuit(String upstream, Supplier<Number> state) {
+        Gauge.builder("upstream.circuit.state", state)
+                .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .tag("upstream", upstream)
+                .register(registry);
+    }
+
+    /** Outcome of one upstream attempt: success, failure or rejected (circuit open). */
+    public void recordUpstreamCall(String upstream, String outcome) {
+        registry.counter("upstream.calls", "upstream", upstream, "outcome", outcome).increment();
+    }
+
+    public void recordUpstreamRetry(String upstream) {
+        registry.counter("upstream.retries", "upstream", upstream).increment();
+    }
+
+    /** 1 while the served dataset is older than the last refresh attempt, else 0. */
+    public void registerStaleness(Supplier<Number> stale) {
+        Gauge.builder("countries.data.stale", stale)
+                .description("1 while serving the last good dataset after a failed refresh")
+                .register(registry);
+    }
+
+    /** One histogram sample per recorded stage, plus the refresh as a whole tagged by outcome. */
+    public void recordRefresh(RefreshTimings timings, String outcome, long totalNanos) {
+        timings.toNanos().forEach((stage, nanos) ->
+                stageTimers.computeIfAbsent(stage, s -> Timer.builder("countries.refresh.stage")
+                        .description("Duration of one refresh stage")
+                        .tag("stage", s)
+                        .publishPercentileHistogram()
+                        .register(registry)).record(nanos, TimeUnit.NANOSECONDS));
+        Timer.builder("countries.refresh")
+                .description("Duration of a whole refresh")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+    }
+}
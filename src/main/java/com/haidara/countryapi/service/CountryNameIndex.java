@@ -0,0 +1,185 @@
+package com.haidara.countryapi.service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Country names folded to lower case without accents: a hash map for exact lookups and a
+ * sorted key array for prefix ranges and bounded-edit-distance search. Built once per snapshot.
+ */
+public final class CountryNameIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int[] NO_ROWS = new int[0];
+
+    /** One search hit: a snapshot row and its edit distance from the query (0 for a plain prefix match). */
+    public record Match(int row, int distance) {}
+
+    private final String[] names;
+    private final Map<String, int[]> exact;
+    private final String[] keys;
+    private final int[] keyRows;
+
+    CountryNameIndex(CountrySnapshot snapshot) {
+        int size = snapshot.size();
+        this.names = new String[size];
+        this.exact = new HashMap<>(size * 2);
+        Integer[] order = new Integer[size];
+        String[] folded = new String[size];
+        for (int row = 0; row < size; row++) {
+            names[row] = snapshot.name(row);
+            folded[row] = normalize(names[row]);
+            order[row] = row;
+            exact.merge(folded[row], new int[]{row}, CountryNameIndex::concat);
+        }
+        Arrays.sort(order, Comparator.comparing((Integer row) -> folded[row]).thenComparing(row -> row));
+        this.keys = new String[size];
+        this.keyRows = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = folded[order[i]];
+            keyRows[i] = order[i];
+        }
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    /** Case-folded, accent-stripped form used for every comparison. */
+    public static String normalize(String value) {
+        boolean ascii = true;
+        for (int i = 0; i < value.length() && ascii; i++) ascii = value.charAt(i) < 0x80;
+        if (ascii) return value.toLowerCase(Locale.ROOT);
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Row whose name equals {@code name} ignoring case and accents, or -1. When several names fold
+     * to the same key, one that matches ignoring case only is preferred.
+     */
+    public int find(String name) {
+        if (name == null) return CountrySnapshot.NONE;
+        int[] rows = exact.getOrDefault(normalize(name), NO_ROWS);
+        for (int row : rows) {
+            if (names[row].equalsIgnoreCase(name)) return row;
+        }
+        return rows.length > 0 ? rows[0] : CountrySnapshot.NONE;
+    }
+
+    /**
+     * Up to {@code limit} names starting with {@code query}, then, if room remains, names with a
+     * prefix within {@code maxEdits} edits of it; ordered by distance, then folded name.
+     */
+    public List<Match> search(String query, int limit, int maxEdits) {
+        String q = normalize(query);
+        List<Match> matches = new ArrayList<>(Math.min(limit, 16));
+        int from = lowerBound(q);
+        int to = prefixEnd(from, q);
+        for (int i = from; i < to && matches.size() < limit; i++) matches.add(new Match(keyRows[i], 0));
+        if (matches.size() >= limit || maxEdits == 0) return matches;
+
+        List<Match> fuzzy = new ArrayList<>();
+        fuzzyWalk(q, maxEdits, fuzzy);
+        fuzzy.sort(Comparator.comparingInt(Match::distance));  // stable: keeps key order within a distance
+        for (Match m : fuzzy) {
+            if (matches.size() >= limit) break;
+            if (m.distance() > 0) matches.add(m);
+        }
+        return matches;
+    }
+
+    /**
+     * Prefix edit distance against every key, walking the sorted keys as an implicit trie:
+     * DP rows are reused across a shared prefix, and once every cell of a row exceeds
+     * {@code maxEdits} the whole subtree below that prefix is skipped.
+     */
+    private void fuzzyWalk(String q, int maxEdits, List<Match> out) {
+        int m = q.length();
+        int[][] dp = new int[1][];
+        int[] bestAt = new int[1];
+        dp[0] = new int[m + 1];
+        for (int j = 0; j <= m; j++) dp[0][j] = j;
+        bestAt[0] = m;
+
+        String previous = "";
+        int validDepth = 0; // dp rows 0..validDepth describe previous.substring(0, validDepth)
+        int i = 0;
+        while (i < keys.length) {
+            String key = keys[i];
+            int depth = Math.min(validDepth, commonPrefix(previous, key));
+            if (dp.length < key.length() + 1) {
+                dp = Arrays.copyOf(dp, key.length() + 1);
+                bestAt = Arrays.copyOf(bestAt, key.length() + 1);
+            }
+            int pruned = -1;
+            for (int d = depth + 1; d <= key.length(); d++) {
+                int[] above = dp[d - 1];
+                int[] row = dp[d] != null ? dp[d] : (dp[d] = new int[m + 1]);
+                char c = key.charAt(d - 1);
+                row[0] = d;
+                int min = row[0];
+                for (int j = 1; j <= m; j++) {
+                    int cost = q.charAt(j - 1) == c ? 0 : 1;
+                    row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+                    min = Math.min(min, row[j]);
+                }
+                bestAt[d] = Math.min(bestAt[d - 1], row[m]);
+                if (min > maxEdits) {
+                    pruned = d;
+                    break;
+                }
+            }
+
+            if (pruned >= 0) {
+                // No key under this prefix can do better; jump past all of them
+                String prefix = key.substring(0, pruned);
+                int next = prefixEnd(i, prefix);
+                if (bestAt[pruned] <= maxEdits) {
+                    for (int k = i; k < next; k++) out.add(new Match(keyRows[k], bestAt[pruned]));
+                }
+                previous = key;
+                validDepth = pruned - 1;
+                i = next;
+            } else {
+                if (bestAt[key.length()] <= maxEdits) out.add(new Match(keyRows[i], bestAt[key.length()]));
+                previous = key;
+                validDepth = key.length();
+                i++;
+            }
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index at or after {@code from} whose key does not start with {@code prefix}. */
+    private int prefixEnd(int from, String prefix) {
+        int lo = from;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].startsWith(prefix) || keys[mid].compareTo(prefix) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
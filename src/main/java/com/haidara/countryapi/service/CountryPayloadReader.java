@@ -0,0 +1,121 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haidara.countryapi.model.ExternalCountry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams the REST Countries array one record at a time, keeping only the
+ * fields {@link ExternalCountry} exposes and skipping everything else unparsed.
+ */
+@Component
+public class CountryPayloadReader {
+
+    private final JsonFactory jsonFactory;
+
+    public CountryPayloadReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Read every record from {@code in} and hand it to {@code sink}; returns the record count.
+     * A malformed payload raises a {@link com.fasterxml.jackson.core.JsonProcessingException}, which
+     * callers can tell apart from I/O failures on the stream itself.
+     */
+    public int read(InputStream in, Consumer<ExternalCountry> sink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw new JsonParseException(parser, "Expected a JSON array of countries");
+
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) throw new JsonParseException(parser, "Unexpected end of countries payload");
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                sink.accept(readCountry(parser));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private ExternalCountry readCountry(JsonParser parser) throws IOException {
+        String name = null;
+        String capital = null;
+        String region = null;
+        Long population = null;
+        String flag = null;
+        String currencyCode = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = readChildText(parser, value, "common");
+                case "capital" -> capital = readFirstText(parser, value);
+                case "region" -> region = value == JsonToken.VALUE_STRING ? parser.getText() : skip(parser);
+                case "population" -> population = value.isNumeric() ? parser.getLongValue() : skipLong(parser);
+                case "flags" -> flag = readChildText(parser, value, "png");
+                case "currencies" -> currencyCode = readFirstFieldName(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return ExternalCountry.of(name, capital, region, population, flag, currencyCode);
+    }
+
+    /** Text of {@code child} inside an object value; other members are skipped. */
+    private static String readChildText(JsonParser parser, JsonToken value, String child) throws IOException {
+        if (value != JsonToken.START_OBJECT) return skip(parser);
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean wanted = child.equals(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (wanted && token == JsonToken.VALUE_STRING) result = parser.getText();
+            else parser.skipChildren();
+        }
+        return result;
+    }
+
+    private static String readFirstText(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) return skip(parser);
+        String result = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (result == null && token == JsonToken.VALUE_STRING) result = parser.getText();
+            else parser.skipChildren();
+        }
+        return result;
+    }
+
+    private static String readFirstFieldName(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) return skip(parser);
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (result == null) result = parser.getCurrentName();
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        return result;
+    }
+
+    private static String skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Long skipLong(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+}
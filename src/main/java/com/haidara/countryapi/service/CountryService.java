@@ -1,21 +1,40 @@
 package com.haidara.countryapi.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.haidara.countryapi.model.Country;
+import com.haidara.countryapi.model.CountryBatchRequest;
 import com.haidara.countryapi.model.ExternalCountry;
 import com.haidara.countryapi.model.ExchangeRateResponse;
 import com.haidara.countryapi.repository.CountryRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CountryService {
@@ -24,7 +43,27 @@ public class CountryService {
 
     private final CountryRepository countryRepository;
     private final RestTemplate restTemplate;
-    private final ImageService imageService;
+    private final CountrySnapshotHolder snapshotHolder;
+    private final CountryPayloadReader payloadReader;
+    private final Executor upstreamExecutor;
+
+    private final UpstreamValidators validators;
+    private final CountryWriter countryWriter;
+    private final JsonResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final CountryMetrics metrics;
+    private final CountrySnapshotStore snapshotStore;
+    private final RateHistory rateHistory;
+    private final ClusterNode clusterNode;
+    private final UpstreamGuard upstreamGuard;
+    private final Object writeLock = new Object();
+
+    private volatile RefreshTimings lastTimings;
+    private volatile Map<String, Double> lastRates;
+    private volatile Instant lastRatesObservedAt;
+    /** Set while the served data is older than the latest refresh attempt, with the reason */
+    private volatile Instant staleSince;
+    private volatile String staleReason;
 
     @Value("${app.external.countries-api:https://restcountries.com/v3.1/all}")
     private String countriesApiUrl;
@@ -32,116 +71,569 @@ public class CountryService {
     @Value("${app.external.exchange-api:https://api.exchangerate-api.com/v4/latest/USD}")
     private String exchangeApiUrl;
 
-    public CountryService(CountryRepository countryRepository, RestTemplate restTemplate, ImageService imageService) {
+    @Value("${app.refresh.incremental:true}")
+    private boolean incremental;
+
+    @Value("${app.query.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${app.query.max-limit:1000}")
+    private int maxLimit;
+
+    public CountryService(CountryRepository countryRepository, RestTemplate restTemplate,
+                          CountrySnapshotHolder snapshotHolder,
+                          CountryPayloadReader payloadReader,
+                          @Qualifier("upstreamExecutor") Executor upstreamExecutor,
+                          UpstreamValidators validators, CountryWriter countryWriter,
+                          JsonResponseCache responseCache, ObjectMapper objectMapper,
+                          CountryMetrics metrics, CountrySnapshotStore snapshotStore,
+                          RateHistory rateHistory, ClusterNode clusterNode, UpstreamGuard upstreamGuard) {
         this.countryRepository = countryRepository;
         this.restTemplate = restTemplate;
-        this.imageService = imageService;
+        this.snapshotHolder = snapshotHolder;
+        this.payloadReader = payloadReader;
+        this.upstreamExecutor = upstreamExecutor;
+        this.validators = validators;
+        this.countryWriter = countryWriter;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.snapshotStore = snapshotStore;
+        this.rateHistory = rateHistory;
+        this.clusterNode = clusterNode;
+        this.upstreamGuard = upstreamGuard;
+        metrics.registerStaleness(() -> staleSince != null ? 1 : 0);
+    }
+
+    /**
+     * Seed the in-memory snapshot before the web server starts: from the database when it has rows,
+     * otherwise from the snapshot file written by the last refresh, which is also copied into the database.
+     */
+    @PostConstruct
+    void loadSnapshot() {
+        List<Country> stored = countryRepository.findAll();
+        if (stored.isEmpty()) {
+            long start = System.nanoTime();
+            Optional<CountrySnapshotCodec.Persisted> persisted = snapshotStore.load();
+            if (persisted.isPresent()) {
+                CountrySnapshot snapshot = restore(persisted.get());
+                logger.info("Restored snapshot v{} with {} countries from file in {} ms", snapshot.getVersion(),
+                        snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            }
+        }
+        // Rows only carry the time they last changed; serve them with the dataset's refresh time
+        LocalDateTime refreshedAt = countryWriter.lastRefreshTime();
+        if (refreshedAt != null) stored.forEach(c -> c.setLastRefreshedAt(refreshedAt));
+        CountrySnapshot snapshot = snapshotHolder.publish(stored);
+        logger.info("Loaded snapshot v{} with {} countries", snapshot.getVersion(), snapshot.size());
+    }
+
+    /**
+     * Replace the dataset, rates and validators with a persisted state, from the snapshot file
+     * or from the cluster leader, and publish it as the next snapshot version. The rates go into
+     * the rate history under the time the leader recorded them, so followers answer rate queries
+     * like the leader; a follower that missed publishes only gets the latest rates.
+     */
+    public CountrySnapshot restore(CountrySnapshotCodec.Persisted state) {
+        synchronized (writeLock) {
+            countryWriter.replaceAll(state.snapshot());
+            lastRates = state.rates().isEmpty() ? null : state.rates();
+            lastRatesObservedAt = state.ratesObservedAt();
+            if (lastRatesObservedAt != null) rateHistory.record(lastRatesObservedAt, state.rates());
+            validators.restore(state.validators());
+            return snapshotHolder.publish(state.snapshot());
+        }
     }
 
-    /** Fetch data from APIs and save countries */
-    public void refreshCountries() {
+    /** Persist the current dataset, rates and validators for the next warm start and, on a leader, for the followers */
+    private void saveSnapshot() {
+        synchronized (writeLock) {
+            CountrySnapshotCodec.Persisted state = new CountrySnapshotCodec.Persisted(
+                    snapshotHolder.get(), lastRates, lastRatesObservedAt, validators.snapshot());
+            snapshotStore.save(state);
+            clusterNode.publish(state);
+        }
+    }
+
+    /**
+     * Fetch data from APIs and save countries.
+     * Returns false when both upstreams answered 304 and nothing was rewritten.
+     */
+    public boolean refreshCountries() {
+        return refreshCountries(new RefreshTimings());
+    }
+
+    /** As {@link #refreshCountries()}, reporting stage progress and durations into {@code timings} */
+    public boolean refreshCountries(RefreshTimings timings) {
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            boolean updated = fetchAndPersist(timings);
+            outcome = updated ? "updated" : "unchanged";
+            return updated;
+        } finally {
+            metrics.recordRefresh(timings, outcome, System.nanoTime() - start);
+        }
+    }
+
+    private boolean fetchAndPersist(RefreshTimings timings) {
+        // Validators are only trusted while we still hold the data they describe
+        boolean conditional = snapshotHolder.get().size() > 0;
+        // Both upstream calls start together; the countries stream only waits for rates at its first record
+        CompletableFuture<RatesFetch> ratesFuture = CompletableFuture.supplyAsync(
+                () -> timings.time("exchange_rates_fetch", () -> fetchExchangeRatesOrStale(conditional)), upstreamExecutor);
         try {
             logger.info("Starting countries refresh...");
+            timings.enter("fetch");
+
+            AwaitedRates exchangeRates = new AwaitedRates(ratesFuture, timings, upstreamGuard);
+            LocalDateTime refreshedAt = LocalDateTime.now();
+
+            long fetchStart = System.nanoTime();
+            CountriesFetch countries = upstreamGuard.call("countries",
+                    () -> streamCountries(conditional, exchangeRates, refreshedAt, timings));
+            if (countries.notModified()) {
+                if (exchangeRates.get().notModified()) {
+                    timings.record("countries_fetch", System.nanoTime() - fetchStart);
+                    lastTimings = timings;
+                    markFresh(exchangeRates.get());
+                    logger.info("Upstream data not modified, skipping refresh");
+                    return false;
+                }
+                // Rates moved but countries did not: the join needs the full payload again
+                countries = upstreamGuard.call("countries",
+                        () -> streamCountries(false, exchangeRates, refreshedAt, timings));
+            }
+            timings.record("countries_fetch", System.nanoTime() - fetchStart);
+            RatesFetch rates = exchangeRates.get(); // surface a rates failure even when no record needed it
+            CountrySnapshot.Builder builder = countries.builder();
+            CountrySnapshot staged = timings.time("snapshot_build", () -> builder.build(0));
 
-            // Fetch countries data
-            ResponseEntity<ExternalCountry[]> countriesResponse =
-                    restTemplate.getForEntity(countriesApiUrl, ExternalCountry[].class);
+            timings.enter("db_write");
+            long writeStart = System.nanoTime();
+            int changes = persist(staged, refreshedAt);
+            timings.record("db_write", System.nanoTime() - writeStart);
 
-            if (!countriesResponse.getStatusCode().is2xxSuccessful() || countriesResponse.getBody() == null)
-                throw new RuntimeException("Failed to fetch countries data");
+            validators.remember(countriesApiUrl, countries.validator());
+            if (!rates.notModified()) {
+                lastRates = rates.rates();
+                lastRatesObservedAt = rates.observedAt();
+                validators.remember(exchangeApiUrl, rates.validator());
+                rateHistory.record(rates.observedAt(), rates.rates());
+            }
+            timings.time("snapshot_save", () -> {
+                saveSnapshot();
+                return null;
+            });
+            lastTimings = timings;
+            markFresh(rates);
+            logger.info("Saved {} countries ({} records read, {} changed) in {}",
+                    staged.size(), countries.read(), changes, timings.toMillis());
+            return true;
+        } catch (Exception e) {
+            ratesFuture.cancel(true);
+            Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+            markStale("Refresh failed: " + cause.getMessage());
+            logger.error("Failed to refresh countries: {}", cause.getMessage());
+            throw new RuntimeException("External data source unavailable: " + cause.getMessage());
+        }
+    }
 
-            // Fetch exchange rates
-            ResponseEntity<ExchangeRateResponse> exchangeResponse =
-                    restTemplate.getForEntity(exchangeApiUrl, ExchangeRateResponse.class);
+    /** Whatever the current snapshot is, it was served instead of fresher data; cleared by the next full success */
+    private void markStale(String reason) {
+        if (staleSince == null) staleSince = Instant.now();
+        staleReason = reason;
+    }
 
-            Map<String, Double> exchangeRates = new HashMap<>();
-            if (exchangeResponse.getStatusCode().is2xxSuccessful() && exchangeResponse.getBody() != null)
-                exchangeRates = exchangeResponse.getBody().getRates();
+    private void markFresh(RatesFetch rates) {
+        if (rates.staleReason() != null) {
+            markStale(rates.staleReason());
+        } else {
+            staleSince = null;
+            staleReason = null;
+        }
+    }
 
-            List<Country> countriesToSave = new ArrayList<>();
+    private record CountriesFetch(int read, boolean notModified, UpstreamValidators.Validator validator,
+                                  CountrySnapshot.Builder builder) {}
 
-            for (ExternalCountry ext : countriesResponse.getBody()) {
-                String name = ext.getName();
-                if (name == null || name.isBlank()) continue;
+    /** {@code staleReason} is set when the rates are the last good ones, kept because the fetch failed */
+    private record RatesFetch(Map<String, Double> rates, boolean notModified, UpstreamValidators.Validator validator,
+                              Instant observedAt, String staleReason) {}
 
-                String currencyCode = null;
-                if (ext.getCurrencies() != null && !ext.getCurrencies().isEmpty()) {
-                    currencyCode = ext.getCurrencies().keySet().iterator().next();
-                }
+    /**
+     * Stream the countries payload into a new builder, joining each record as it arrives.
+     * Every call starts from scratch, so a failed attempt can simply be retried.
+     */
+    private CountriesFetch streamCountries(boolean conditional, AwaitedRates exchangeRates,
+                                           LocalDateTime refreshedAt, RefreshTimings timings) {
+        CountrySnapshot.Builder builder = new CountrySnapshot.Builder();
+        CountrySnapshot previous = snapshotHolder.get();
+        long[] joinNanos = new long[1];
+        CountriesFetch fetch = restTemplate.execute(countriesApiUrl, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (conditional) validators.applyTo(countriesApiUrl, request.getHeaders());
+                },
+                response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED)
+                        return new CountriesFetch(0, true, null, builder);
+                    if (!response.getStatusCode().is2xxSuccessful())
+                        throw new RuntimeException("Failed to fetch countries data");
+                    int read = payloadReader.read(response.getBody(), ext -> {
+                        Map<String, Double> rates = exchangeRates.get().rates();
+                        long joinStart = System.nanoTime();
+                        Country c = toCountry(ext, rates, previous, refreshedAt);
+                        joinNanos[0] += System.nanoTime() - joinStart;
+                        if (c != null) builder.add(c);
+                    });
+                    return new CountriesFetch(read, false, UpstreamValidators.Validator.from(response.getHeaders()),
+                            builder);
+                });
+        timings.record("join", joinNanos[0]);
+        return fetch;
+    }
 
-                Double rate = (currencyCode != null) ? exchangeRates.get(currencyCode) : null;
-                if (rate == null || rate == 0) continue;
-
-                Double gdp = calculateEstimatedGdp(ext.getPopulation(), rate);
-
-                Country c = new Country(
-                        name.split(",")[0], // normalize
-                        ext.getCapital(),
-                        ext.getRegion(),
-                        ext.getPopulation(),
-                        currencyCode,
-                        rate,
-                        gdp,
-                        ext.getFlag()
-                );
-                c.setLastRefreshedAt(LocalDateTime.now());
-                countriesToSave.add(c);
+    /**
+     * Waits for the exchange-rate fetch on first use and records how long the caller was blocked.
+     * The wait happens inside a countries attempt, so it is kept off that attempt's deadline.
+     */
+    private static final class AwaitedRates {
+        private final CompletableFuture<RatesFetch> future;
+        private final RefreshTimings timings;
+        private final UpstreamGuard guard;
+        private RatesFetch rates;
+
+        AwaitedRates(CompletableFuture<RatesFetch> future, RefreshTimings timings, UpstreamGuard guard) {
+            this.future = future;
+            this.timings = timings;
+            this.guard = guard;
+        }
+
+        RatesFetch get() {
+            if (rates == null) {
+                long start = System.nanoTime();
+                rates = guard.excludingWait(future::join);
+                timings.record("exchange_rates_wait", System.nanoTime() - start);
             }
+            return rates;
+        }
+    }
 
-            countryRepository.deleteAll();
-            countryRepository.saveAll(countriesToSave);
-            imageService.generateSummaryImage();
+    /**
+     * Stale-while-revalidate for rates: when the guarded fetch fails but earlier rates are held,
+     * the refresh goes on with those (reported as not modified) and the data is flagged stale.
+     */
+    private RatesFetch fetchExchangeRatesOrStale(boolean conditional) {
+        try {
+            return upstreamGuard.call("rates", () -> fetchExchangeRates(conditional));
+        } catch (RuntimeException e) {
+            Map<String, Double> previous = lastRates;
+            if (previous == null) throw e;
+            logger.warn("Exchange rates unavailable, joining with the last good rates: {}", e.getMessage());
+            return new RatesFetch(previous, true, null, null, "Exchange rates unavailable: " + e.getMessage());
+        }
+    }
 
-            logger.info("Saved {} countries", countriesToSave.size());
-        } catch (Exception e) {
-            logger.error("Failed to refresh countries: {}", e.getMessage());
-            throw new RuntimeException("External data source unavailable: " + e.getMessage());
+    private RatesFetch fetchExchangeRates(boolean conditional) {
+        Map<String, Double> previous = lastRates;
+        HttpHeaders headers = new HttpHeaders();
+        if (conditional && previous != null) validators.applyTo(exchangeApiUrl, headers);
+
+        ResponseEntity<ExchangeRateResponse> exchangeResponse = restTemplate.exchange(
+                exchangeApiUrl, HttpMethod.GET, new HttpEntity<>(headers), ExchangeRateResponse.class);
+
+        if (exchangeResponse.getStatusCode() == HttpStatus.NOT_MODIFIED && previous != null)
+            return new RatesFetch(previous, true, null, null, null);
+        ExchangeRateResponse body = exchangeResponse.getBody();
+        if (exchangeResponse.getStatusCode().is2xxSuccessful() && body != null && body.getRates() != null)
+            return new RatesFetch(body.getRates(), false,
+                    UpstreamValidators.Validator.from(exchangeResponse.getHeaders()),
+                    body.getLastUpdated() != null ? Instant.ofEpochSecond(body.getLastUpdated()) : Instant.now(), null);
+        return new RatesFetch(new HashMap<>(), false, null, Instant.now(), null);
+    }
+
+    /** Join one upstream record with its exchange rate; null when the record is skipped */
+    private Country toCountry(ExternalCountry ext, Map<String, Double> exchangeRates,
+                              CountrySnapshot previous, LocalDateTime refreshedAt) {
+        String name = ext.getName();
+        if (name == null || name.isBlank()) return null;
+        name = name.split(",")[0]; // normalize
+
+        String currencyCode = null;
+        if (ext.getCurrencies() != null && !ext.getCurrencies().isEmpty()) {
+            currencyCode = ext.getCurrencies().keySet().iterator().next();
+        }
+
+        Double rate = (currencyCode != null) ? exchangeRates.get(currencyCode) : null;
+        if (rate == null || rate == 0) return null;
+
+        // Keep the previous estimate while its inputs are unchanged so unchanged rows diff as equal
+        Double gdp;
+        int row = previous.indexOf(name);
+        if (row >= 0 && previous.exchangeRate(row) == rate
+                && previous.population(row) == (ext.getPopulation() != null ? ext.getPopulation() : CountrySnapshot.NO_POPULATION))
+            gdp = previous.estimatedGdp(row);
+        else
+            gdp = calculateEstimatedGdp(ext.getPopulation(), rate);
+
+        Country c = new Country(
+                name,
+                ext.getCapital(),
+                ext.getRegion(),
+                ext.getPopulation(),
+                currencyCode,
+                rate,
+                gdp,
+                ext.getFlag()
+        );
+        c.setLastRefreshedAt(refreshedAt);
+        return c;
+    }
+
+    /** Write {@code staged} to the database and publish it; returns the number of rows written */
+    private int persist(CountrySnapshot staged, LocalDateTime refreshedAt) {
+        synchronized (writeLock) {
+            CountrySnapshot previous = snapshotHolder.get();
+            int changes;
+            if (incremental) {
+                CountrySnapshotDiff diff = CountrySnapshotDiff.between(previous, staged);
+                countryWriter.applyDiff(staged, diff, refreshedAt);
+                changes = diff.changeCount();
+            } else {
+                countryWriter.replaceAll(staged);
+                changes = staged.size();
+            }
+            snapshotHolder.publish(staged);
+            return changes;
         }
     }
 
-    private Double calculateEstimatedGdp(Long population, Double exchangeRate) {
+    public static Double calculateEstimatedGdp(Long population, Double exchangeRate) {
         if (population == null || exchangeRate == null || exchangeRate == 0) return 0.0;
         double random = ThreadLocalRandom.current().nextDouble(1000, 2001);
         return (population * random) / exchangeRate;
     }
 
+    /** Served from the current snapshot's indexes; region and currency filters can be combined */
     public List<Country> getAllCountries(String region, String currency, String sort) {
-        List<Country> countries;
-        if (region != null) countries = countryRepository.findByRegionIgnoreCase(region);
-        else if (currency != null) countries = countryRepository.findByCurrencyCodeIgnoreCase(currency);
-        else countries = countryRepository.findAll();
-
-        if (sort != null && !countries.isEmpty()) {
-            switch (sort.toLowerCase()) {
-                case "gdp_desc" -> countries.sort((a, b) -> Double.compare(b.getEstimatedGdp(), a.getEstimatedGdp()));
-                case "gdp_asc" -> countries.sort((a, b) -> Double.compare(a.getEstimatedGdp(), b.getEstimatedGdp()));
-                case "population_desc" -> countries.sort((a, b) -> Long.compare(b.getPopulation(), a.getPopulation()));
-                case "population_asc" -> countries.sort((a, b) -> Long.compare(a.getPopulation(), b.getPopulation()));
+        return countriesOf(snapshotHolder.get(), region, currency, CountrySort.fromParam(sort));
+    }
+
+    private static List<Country> countriesOf(CountrySnapshot snapshot, String region, String currency, CountrySort sort) {
+        int[] rows = snapshot.getIndex().view(region, currency, sort);
+        return countriesOf(snapshot, rows, 0, rows.length);
+    }
+
+    /** JSON body for {@link #getAllCountries}, encoded once per snapshot version and normalized query */
+    public JsonResponseCache.CachedJson getAllCountriesJson(String region, String currency, String sort) {
+        return getCountriesJson(region, currency, sort, null, null, null);
+    }
+
+    /**
+     * One page of {@link #getAllCountriesJson}. Without {@code limit} and {@code cursor} every match is
+     * returned; otherwise at most {@code limit} rows (default {@code app.query.default-limit}) after
+     * {@code cursor}, with the next page's cursor on the result. {@code fields} projects the listed
+     * columns straight from the snapshot. Invalid arguments raise {@link IllegalArgumentException}.
+     */
+    public JsonResponseCache.CachedJson getCountriesJson(String region, String currency, String sort,
+                                                         Integer limit, String cursor, String fields) {
+        long start = System.nanoTime();
+        CountrySnapshot snapshot = snapshotHolder.get();
+        CountrySort order = CountrySort.fromParam(sort);
+        List<CountryField> projection = CountryField.parse(fields);
+        CountryCursor after = cursor != null && !cursor.isEmpty() ? CountryCursor.decode(cursor, order) : null;
+        if (limit != null && (limit < 1 || limit > maxLimit))
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        int pageSize = limit != null ? limit : after != null ? defaultLimit : Integer.MAX_VALUE;
+
+        String key = "list|" + cacheKeyPart(region) + "|" + cacheKeyPart(currency) + "|"
+                + (order != null ? order.getParam() : "")
+                + (pageSize != Integer.MAX_VALUE ? "|" + pageSize + "|" + (after != null ? cursor : "") : "")
+                + (projection != null ? "|" + projection : "");
+        JsonResponseCache.CachedJson json = responseCache.getPage(snapshot.getVersion(), key, () -> {
+            int[] rows = snapshot.getIndex().view(region, currency, order);
+            int from = after != null ? after.startIn(snapshot, rows) : 0;
+            int to = (int) Math.min(rows.length, (long) from + pageSize);
+            String next = to < rows.length && to > from
+                    ? CountryCursor.after(snapshot, rows[to - 1], order).encode() : null;
+            return new JsonResponseCache.Page(projection != null
+                    ? toProjectedJson(snapshot, rows, from, to, projection)
+                    : toJson(countriesOf(snapshot, rows, from, to)), next, to - from);
+        });
+        metrics.queryTimer(region, currency, order).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        metrics.recordQueryRows(region, currency, order, json.rows());
+        metrics.recordResponseSize(json.body().length);
+        return json;
+    }
+
+    private static List<Country> countriesOf(CountrySnapshot snapshot, int[] rows, int from, int to) {
+        List<Country> countries = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) countries.add(snapshot.toCountry(rows[i]));
+        return countries;
+    }
+
+    /** Only the requested columns, written without materializing Country objects */
+    private byte[] toProjectedJson(CountrySnapshot snapshot, int[] rows, int from, int to, List<CountryField> fields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, (to - from) * 16 * fields.size()));
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (int i = from; i < to; i++) {
+                json.writeStartObject();
+                for (CountryField field : fields) field.write(json, snapshot, rows[i]);
+                json.writeEndObject();
             }
+            json.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return countries;
+        return out.toByteArray();
     }
 
     public Optional<Country> getCountryByName(String name) {
-        return countryRepository.findByNameIgnoreCase(name);
+        CountrySnapshot snapshot = snapshotHolder.get();
+        int row = snapshot.indexOfIgnoreCase(name);
+        return row < 0 ? Optional.empty() : Optional.of(snapshot.toCountry(row));
     }
 
+    /** JSON body for {@link #getCountryByName}; misses are not cached */
+    public Optional<JsonResponseCache.CachedJson> getCountryJson(String name) {
+        long start = System.nanoTime();
+        CountrySnapshot snapshot = snapshotHolder.get();
+        int row = snapshot.indexOfIgnoreCase(name);
+        Optional<JsonResponseCache.CachedJson> json = row < 0 ? Optional.empty()
+                : Optional.of(responseCache.get(snapshot.getVersion(), "country|" + snapshot.name(row),
+                        () -> toJson(snapshot.toCountry(row))));
+        metrics.lookupTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        json.ifPresent(j -> metrics.recordResponseSize(j.body().length));
+        return json;
+    }
+
+    /** Distinguishes an absent parameter from an empty one */
+    private static String cacheKeyPart(String value) {
+        return value == null ? "*" : "=" + value.toLowerCase(Locale.ROOT);
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Names matching {@code query} as a prefix, then within {@code maxEdits} edits of a prefix
+     * (null picks 0, 1 or 2 from the query length). Served from the snapshot's name index.
+     */
+    public List<Map<String, Object>> searchCountries(String query, int limit, Integer maxEdits) {
+        if (query == null || query.isBlank()) throw new IllegalArgumentException("q is required");
+        if (limit < 1 || limit > maxLimit) throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        if (maxEdits != null && (maxEdits < 0 || maxEdits > 2))
+            throw new IllegalArgumentException("max_edits must be between 0 and 2");
+        String q = query.trim();
+        int edits = maxEdits != null ? maxEdits : q.length() <= 3 ? 0 : q.length() <= 6 ? 1 : 2;
+
+        CountrySnapshot snapshot = snapshotHolder.get();
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (CountryNameIndex.Match match : snapshot.getIndex().getNames().search(q, limit, edits)) {
+            int row = match.row();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("name", snapshot.name(row));
+            result.put("capital", snapshot.capital(row));
+            result.put("region", snapshot.region(row));
+            result.put("currency_code", snapshot.currencyCode(row));
+            result.put("distance", match.distance());
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Resolve every requested name (ignoring case and accents) and every country using one of the
+     * requested currency codes against a single snapshot. Rows come back in request order without
+     * duplicates; unmatched inputs are reported rather than failing the call.
+     */
+    public CountryBatchResult lookupBatch(CountryBatchRequest request) {
+        List<String> names = request.getNames() != null ? request.getNames() : List.of();
+        List<String> currencies = request.getCurrencies() != null ? request.getCurrencies() : List.of();
+        if (names.isEmpty() && currencies.isEmpty())
+            throw new IllegalArgumentException("names or currencies is required");
+        if (names.size() + currencies.size() > maxLimit)
+            throw new IllegalArgumentException("At most " + maxLimit + " names and currencies per request");
+        List<CountryField> fields = request.getFields() != null
+                ? CountryField.parse(String.join(",", request.getFields())) : null;
+
+        CountrySnapshot snapshot = snapshotHolder.get();
+        BitSet seen = new BitSet(snapshot.size());
+        int[] rows = new int[Math.min(snapshot.size(), 16)];
+        int count = 0;
+        List<String> missingNames = new ArrayList<>();
+        for (String name : names) {
+            int row = name != null ? snapshot.indexOfIgnoreCase(name) : CountrySnapshot.NONE;
+            if (row < 0) {
+                missingNames.add(name);
+                continue;
+            }
+            if (seen.get(row)) continue;
+            seen.set(row);
+            if (count == rows.length) rows = Arrays.copyOf(rows, Math.max(16, count * 2));
+            rows[count++] = row;
+        }
+        List<String> missingCurrencies = new ArrayList<>();
+        for (String currency : currencies) {
+            BitSet matches = currency != null ? snapshot.getIndex().currencyRows(currency) : null;
+            if (matches == null || matches.isEmpty()) {
+                missingCurrencies.add(currency);
+                continue;
+            }
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (seen.get(row)) continue;
+                seen.set(row);
+                if (count == rows.length) rows = Arrays.copyOf(rows, Math.max(16, count * 2));
+                rows[count++] = row;
+            }
+        }
+        return new CountryBatchResult(snapshot, Arrays.copyOf(rows, count),
+                fields != null ? fields : CountryField.ALL, missingNames, missingCurrencies);
+    }
+
+    /** Resolved through the snapshot's name index, then deleted by primary key */
     public void deleteCountryByName(String name) {
-        countryRepository.findByNameIgnoreCase(name)
-                .ifPresentOrElse(countryRepository::delete, () -> {
-                    throw new RuntimeException("Country not found");
-                });
+        synchronized (writeLock) {
+            CountrySnapshot snapshot = snapshotHolder.get();
+            int row = snapshot.indexOfIgnoreCase(name);
+            if (row < 0) throw new RuntimeException("Country not found");
+            String storedName = snapshot.name(row);
+            countryRepository.deleteById(storedName);
+            snapshotHolder.remove(storedName);
+            // Upstream has not changed, but our copy has: the next refresh must not 304
+            validators.clear();
+            saveSnapshot();
+        }
     }
 
     public Map<String, Object> getStatus() {
-        long total = countryRepository.count();
-        Optional<LocalDateTime> last = countryRepository.findLastRefreshTime();
+        CountrySnapshot snapshot = snapshotHolder.get();
+        LocalDateTime last = snapshot.getLastRefreshedAt();
 
         Map<String, Object> status = new HashMap<>();
-        status.put("total_countries", total);
-        status.put("last_refreshed_at", last
-                .map(t -> t.atZone(ZoneId.of("UTC")).format(DateTimeFormatter.ISO_INSTANT))
-                .orElse(null));
+        status.put("total_countries", (long) snapshot.size());
+        status.put("last_refreshed_at", last != null
+                ? last.atZone(ZoneId.of("UTC")).format(DateTimeFormatter.ISO_INSTANT)
+                : null);
+        RefreshTimings timings = lastTimings;
+        if (timings != null) status.put("last_refresh_timings_ms", timings.toMillis());
+        Instant stale = staleSince;
+        if (stale != null) {
+            status.put("stale_since", stale.toString());
+            status.put("stale_reason", staleReason);
+        }
+        status.put("upstreams", Map.of(
+                "countries", upstreamGuard.state("countries").name().toLowerCase(Locale.ROOT),
+                "rates", upstreamGuard.state("rates").name().toLowerCase(Locale.ROOT)));
+        if (clusterNode.isEnabled()) status.put("cluster", clusterNode.status());
         return status;
     }
 }
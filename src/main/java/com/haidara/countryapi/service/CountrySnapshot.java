@@ -0,0 +1,280 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable, column-oriented copy of every stored country.
+ * Rows are kept in name order; region and currency values are interned into small dictionaries.
+ */
+public final class CountrySnapshot {
+
+    static final long NO_POPULATION = Long.MIN_VALUE;
+    static final int NONE = -1;
+
+    private static final CountrySnapshot EMPTY = build(0, List.of());
+
+    private final long version;
+    private final String[] names;
+    private final String[] capitals;
+    private final int[] regionIds;
+    private final String[] regions;
+    private final int[] currencyIds;
+    private final String[] currencies;
+    private final long[] populations;
+    private final double[] exchangeRates;
+    private final double[] estimatedGdps;
+    private final String[] flagUrls;
+    private final LocalDateTime[] refreshedAt;
+    private final LocalDateTime lastRefreshedAt;
+    private final CountryIndex index;
+    private final CountryStats stats;
+
+    private CountrySnapshot(long version, String[] names, String[] capitals,
+                            int[] regionIds, String[] regions,
+                            int[] currencyIds, String[] currencies,
+                            long[] populations, double[] exchangeRates, double[] estimatedGdps,
+                            String[] flagUrls, LocalDateTime[] refreshedAt) {
+        this(version, names, capitals, regionIds, regions, currencyIds, currencies,
+                populations, exchangeRates, estimatedGdps, flagUrls, refreshedAt, null, null);
+    }
+
+    private CountrySnapshot(long version, String[] names, String[] capitals,
+                            int[] regionIds, String[] regions,
+                            int[] currencyIds, String[] currencies,
+                            long[] populations, double[] exchangeRates, double[] estimatedGdps,
+                            String[] flagUrls, LocalDateTime[] refreshedAt,
+                            CountryIndex index, CountryStats stats) {
+        this.version = version;
+        this.names = names;
+        this.capitals = capitals;
+        this.regionIds = regionIds;
+        this.regions = regions;
+        this.currencyIds = currencyIds;
+        this.currencies = currencies;
+        this.populations = populations;
+        this.exchangeRates = exchangeRates;
+        this.estimatedGdps = estimatedGdps;
+        this.flagUrls = flagUrls;
+        this.refreshedAt = refreshedAt;
+
+        LocalDateTime last = null;
+        for (LocalDateTime t : refreshedAt) {
+            if (t != null && (last == null || t.isAfter(last))) last = t;
+        }
+        this.lastRefreshedAt = last;
+        this.index = index != null ? index : new CountryIndex(this);
+        this.stats = stats != null ? stats : new CountryStats(this);
+    }
+
+    public static CountrySnapshot empty() {
+        return EMPTY;
+    }
+
+    /** Build a snapshot from entities; a later row with the same name replaces an earlier one. */
+    public static CountrySnapshot build(long version, Collection<Country> countries) {
+        Builder builder = new Builder();
+        for (Country c : countries) builder.add(c);
+        return builder.build(version);
+    }
+
+    /**
+     * Accumulates rows straight into growable columns so callers can stream
+     * entities through it without keeping them alive.
+     */
+    public static final class Builder {
+
+        private int size;
+        private String[] names = new String[64];
+        private String[] capitals = new String[64];
+        private int[] regionIds = new int[64];
+        private int[] currencyIds = new int[64];
+        private long[] populations = new long[64];
+        private double[] exchangeRates = new double[64];
+        private double[] estimatedGdps = new double[64];
+        private String[] flagUrls = new String[64];
+        private LocalDateTime[] refreshedAt = new LocalDateTime[64];
+        private final Map<String, Integer> regionDict = new LinkedHashMap<>();
+        private final Map<String, Integer> currencyDict = new LinkedHashMap<>();
+
+        public Builder add(Country c) {
+            if (c.getName() == null) return this;
+            if (size == names.length) grow();
+            names[size] = c.getName();
+            capitals[size] = c.getCapital();
+            regionIds[size] = intern(regionDict, c.getRegion());
+            currencyIds[size] = intern(currencyDict, c.getCurrencyCode());
+            populations[size] = c.getPopulation() != null ? c.getPopulation() : NO_POPULATION;
+            exchangeRates[size] = c.getExchangeRate() != null ? c.getExchangeRate() : Double.NaN;
+            estimatedGdps[size] = c.getEstimatedGdp() != null ? c.getEstimatedGdp() : Double.NaN;
+            flagUrls[size] = c.getFlagUrl();
+            refreshedAt[size] = c.getLastRefreshedAt();
+            size++;
+            return this;
+        }
+
+        public int size() { return size; }
+
+        private void grow() {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            capitals = Arrays.copyOf(capitals, capacity);
+            regionIds = Arrays.copyOf(regionIds, capacity);
+            currencyIds = Arrays.copyOf(currencyIds, capacity);
+            populations = Arrays.copyOf(populations, capacity);
+            exchangeRates = Arrays.copyOf(exchangeRates, capacity);
+            estimatedGdps = Arrays.copyOf(estimatedGdps, capacity);
+            flagUrls = Arrays.copyOf(flagUrls, capacity);
+            refreshedAt = Arrays.copyOf(refreshedAt, capacity);
+        }
+
+        public CountrySnapshot build(long version) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            // Stable sort: for duplicate names the last added row comes last and wins
+            Arrays.sort(order, Comparator.comparing(i -> names[i]));
+
+            int[] keep = new int[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (i + 1 < size && names[order[i]].equals(names[order[i + 1]])) continue;
+                keep[n++] = order[i];
+            }
+
+            String[] outNames = new String[n];
+            String[] outCapitals = new String[n];
+            int[] outRegionIds = new int[n];
+            int[] outCurrencyIds = new int[n];
+            long[] outPopulations = new long[n];
+            double[] outExchangeRates = new double[n];
+            double[] outEstimatedGdps = new double[n];
+            String[] outFlagUrls = new String[n];
+            LocalDateTime[] outRefreshedAt = new LocalDateTime[n];
+            for (int row = 0; row < n; row++) {
+                int src = keep[row];
+                outNames[row] = names[src];
+                outCapitals[row] = capitals[src];
+                outRegionIds[row] = regionIds[src];
+                outCurrencyIds[row] = currencyIds[src];
+                outPopulations[row] = populations[src];
+                outExchangeRates[row] = exchangeRates[src];
+                outEstimatedGdps[row] = estimatedGdps[src];
+                outFlagUrls[row] = flagUrls[src];
+                outRefreshedAt[row] = refreshedAt[src];
+            }
+
+            return new CountrySnapshot(version, outNames, outCapitals,
+                    outRegionIds, regionDict.keySet().toArray(new String[0]),
+                    outCurrencyIds, currencyDict.keySet().toArray(new String[0]),
+                    outPopulations, outExchangeRates, outEstimatedGdps, outFlagUrls, outRefreshedAt);
+        }
+    }
+
+    private static int intern(Map<String, Integer> dict, String value) {
+        if (value == null) return NONE;
+        return dict.computeIfAbsent(value, v -> dict.size());
+    }
+
+    /** Same rows under a different version; columns and indexes are shared. */
+    public CountrySnapshot withVersion(long newVersion) {
+        return new CountrySnapshot(newVersion, names, capitals, regionIds, regions, currencyIds, currencies,
+                populations, exchangeRates, estimatedGdps, flagUrls, refreshedAt, index, stats);
+    }
+
+    /** Copy of this snapshot without the given row; dictionaries are shared and stats are updated in place of a rebuild. */
+    public CountrySnapshot without(int row, long newVersion) {
+        return new CountrySnapshot(newVersion,
+                remove(names, row), remove(capitals, row),
+                remove(regionIds, row), regions,
+                remove(currencyIds, row), currencies,
+                remove(populations, row), remove(exchangeRates, row), remove(estimatedGdps, row),
+                remove(flagUrls, row), remove(refreshedAt, row), null, stats.without(this, row));
+    }
+
+    private static <T> T[] remove(T[] src, int row) {
+        T[] dst = Arrays.copyOf(src, src.length - 1);
+        System.arraycopy(src, row + 1, dst, row, src.length - row - 1);
+        return dst;
+    }
+
+    private static int[] remove(int[] src, int row) {
+        int[] dst = Arrays.copyOf(src, src.length - 1);
+        System.arraycopy(src, row + 1, dst, row, src.length - row - 1);
+        return dst;
+    }
+
+    private static long[] remove(long[] src, int row) {
+        long[] dst = Arrays.copyOf(src, src.length - 1);
+        System.arraycopy(src, row + 1, dst, row, src.length - row - 1);
+        return dst;
+    }
+
+    private static double[] remove(double[] src, int row) {
+        double[] dst = Arrays.copyOf(src, src.length - 1);
+        System.arraycopy(src, row + 1, dst, row, src.length - row - 1);
+        return dst;
+    }
+
+    // --- Row access ---
+
+    public long getVersion() { return version; }
+
+    public int size() { return names.length; }
+
+    public LocalDateTime getLastRefreshedAt() { return lastRefreshedAt; }
+
+    public CountryIndex getIndex() { return index; }
+
+    public CountryStats getStats() { return stats; }
+
+    public String name(int row) { return names[row]; }
+
+    public String capital(int row) { return capitals[row]; }
+
+    public String region(int row) { return regionIds[row] == NONE ? null : regions[regionIds[row]]; }
+
+    public String currencyCode(int row) { return currencyIds[row] == NONE ? null : currencies[currencyIds[row]]; }
+
+    public long population(int row) { return populations[row]; }
+
+    public double exchangeRate(int row) { return exchangeRates[row]; }
+
+    public double estimatedGdp(int row) { return estimatedGdps[row]; }
+
+    public String flagUrl(int row) { return flagUrls[row]; }
+
+    public LocalDateTime refreshedAt(int row) { return refreshedAt[row]; }
+
+    int regionId(int row) { return regionIds[row]; }
+
+    int currencyId(int row) { return currencyIds[row]; }
+
+    /** Row of the country with exactly this name, or -1. */
+    public int indexOf(String name) {
+        if (name == null) return NONE;
+        int row = Arrays.binarySearch(names, name);
+        return row >= 0 ? row : NONE;
+    }
+
+    /** Row of the country with the given name ignoring case and accents, or -1. */
+    public int indexOfIgnoreCase(String name) {
+        return index.getNames().find(name);
+    }
+
+    /** Materialize a detached {@link Country} for the given row. */
+    public Country toCountry(int row) {
+        Country c = new Country();
+        c.setName(names[row]);
+        c.setCapital(capitals[row]);
+        c.setRegion(region(row));
+        c.setPopulation(populations[row] == NO_POPULATION ? null : populations[row]);
+        c.setCurrencyCode(currencyCode(row));
+        c.setExchangeRate(Double.isNaN(exchangeRates[row]) ? null : exchangeRates[row]);
+        c.setEstimatedGdp(Double.isNaN(estimatedGdps[row]) ? null : estimatedGdps[row]);
+        c.setFlagUrl(flagUrls[row]);
+        c.setLastRefreshedAt(refreshedAt[row]);
+        return c;
+    }
+}
@@ -0,0 +1,140 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary form of a {@link CountrySnapshot} together with the exchange-rate table and
+ * upstream validators it was built from, so a restarted instance can resume exactly where it stopped.
+ */
+public final class CountrySnapshotCodec {
+
+    private static final int MAGIC = 0x43534e50; // "CSNP"
+    /** Format 2 adds the time the rates were observed; format 1 files still load, without it. */
+    private static final int FORMAT = 2;
+
+    /**
+     * Everything needed to serve and to refresh incrementally after a restart. {@code ratesObservedAt}
+     * is the rate history time of {@code rates}, or null when unknown.
+     */
+    public record Persisted(CountrySnapshot snapshot, Map<String, Double> rates, Instant ratesObservedAt,
+                            Map<String, UpstreamValidators.Validator> validators) {}
+
+    private CountrySnapshotCodec() {}
+
+    public static void write(OutputStream out, Persisted state) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT);
+
+        CountrySnapshot snapshot = state.snapshot();
+        data.writeInt(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            data.writeUTF(snapshot.name(row));
+            writeNullable(data, snapshot.capital(row));
+            writeNullable(data, snapshot.region(row));
+            writeNullable(data, snapshot.currencyCode(row));
+            data.writeLong(snapshot.population(row));
+            data.writeDouble(snapshot.exchangeRate(row));
+            data.writeDouble(snapshot.estimatedGdp(row));
+            writeNullable(data, snapshot.flagUrl(row));
+            writeTime(data, snapshot.refreshedAt(row));
+        }
+
+        Map<String, Double> rates = state.rates() != null ? state.rates() : Map.of();
+        data.writeInt(rates.size());
+        for (Map.Entry<String, Double> rate : rates.entrySet()) {
+            data.writeUTF(rate.getKey());
+            data.writeDouble(rate.getValue() != null ? rate.getValue() : Double.NaN);
+        }
+        data.writeBoolean(state.ratesObservedAt() != null);
+        if (state.ratesObservedAt() != null) data.writeLong(state.ratesObservedAt().getEpochSecond());
+
+        Map<String, UpstreamValidators.Validator> validators = state.validators() != null ? state.validators() : Map.of();
+        data.writeInt(validators.size());
+        for (Map.Entry<String, UpstreamValidators.Validator> validator : validators.entrySet()) {
+            data.writeUTF(validator.getKey());
+            writeNullable(data, validator.getValue().etag());
+            writeNullable(data, validator.getValue().lastModified());
+        }
+        data.flush();
+    }
+
+    /** Decode a stream produced by {@link #write}; the snapshot comes back with version 0. */
+    public static Persisted read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not a country snapshot file");
+        int format = data.readInt();
+        if (format != 1 && format != FORMAT) throw new IOException("Unsupported snapshot format " + format);
+
+        int rows = data.readInt();
+        CountrySnapshot.Builder builder = new CountrySnapshot.Builder();
+        for (int i = 0; i < rows; i++) {
+            String name = data.readUTF();
+            String capital = readNullable(data);
+            String region = readNullable(data);
+            String currency = readNullable(data);
+            long population = data.readLong();
+            double rate = data.readDouble();
+            double gdp = data.readDouble();
+            String flag = readNullable(data);
+            Country c = new Country(name, capital, region,
+                    population == CountrySnapshot.NO_POPULATION ? null : population,
+                    currency,
+                    Double.isNaN(rate) ? null : rate,
+                    Double.isNaN(gdp) ? null : gdp,
+                    flag);
+            c.setLastRefreshedAt(readTime(data));
+            builder.add(c);
+        }
+
+        int rateCount = data.readInt();
+        Map<String, Double> rates = new HashMap<>(rateCount * 2);
+        for (int i = 0; i < rateCount; i++) {
+            String code = data.readUTF();
+            double rate = data.readDouble();
+            rates.put(code, Double.isNaN(rate) ? null : rate);
+        }
+        Instant ratesObservedAt = format >= 2 && data.readBoolean() ? Instant.ofEpochSecond(data.readLong()) : null;
+
+        int validatorCount = data.readInt();
+        Map<String, UpstreamValidators.Validator> validators = new LinkedHashMap<>();
+        for (int i = 0; i < validatorCount; i++) {
+            String url = data.readUTF();
+            validators.put(url, new UpstreamValidators.Validator(readNullable(data), readNullable(data)));
+        }
+        return new Persisted(builder.build(0), rates, ratesObservedAt, validators);
+    }
+
+    private static void writeNullable(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) data.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream data, LocalDateTime time) throws IOException {
+        data.writeBoolean(time != null);
+        if (time == null) return;
+        data.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        data.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream data) throws IOException {
+        if (!data.readBoolean()) return null;
+        return LocalDateTime.ofEpochSecond(data.readLong(), data.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,76 @@
+package com.haidara.countryapi.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Rows inserted, changed or removed between two snapshots, matched by name.
+ * Both snapshots keep rows in name order, so the diff is a single merge pass.
+ */
+public final class CountrySnapshotDiff {
+
+    private final int[] inserted;
+    private final int[] updated;
+    private final String[] removed;
+
+    private CountrySnapshotDiff(int[] inserted, int[] updated, String[] removed) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    public static CountrySnapshotDiff between(CountrySnapshot previous, CountrySnapshot next) {
+        int[] inserted = new int[next.size()];
+        int[] updated = new int[next.size()];
+        String[] removed = new String[previous.size()];
+        int ins = 0, upd = 0, rem = 0;
+
+        int p = 0, n = 0;
+        while (p < previous.size() || n < next.size()) {
+            int cmp;
+            if (p == previous.size()) cmp = 1;
+            else if (n == next.size()) cmp = -1;
+            else cmp = previous.name(p).compareTo(next.name(n));
+
+            if (cmp < 0) {
+                removed[rem++] = previous.name(p++);
+            } else if (cmp > 0) {
+                inserted[ins++] = n++;
+            } else {
+                if (!sameValues(previous, p, next, n)) updated[upd++] = n;
+                p++;
+                n++;
+            }
+        }
+        return new CountrySnapshotDiff(Arrays.copyOf(inserted, ins), Arrays.copyOf(updated, upd),
+                Arrays.copyOf(removed, rem));
+    }
+
+    /** Compares every stored field except the refresh timestamp. */
+    static boolean sameValues(CountrySnapshot a, int rowA, CountrySnapshot b, int rowB) {
+        return Objects.equals(a.capital(rowA), b.capital(rowB))
+                && Objects.equals(a.region(rowA), b.region(rowB))
+                && a.population(rowA) == b.population(rowB)
+                && Objects.equals(a.currencyCode(rowA), b.currencyCode(rowB))
+                && Double.compare(a.exchangeRate(rowA), b.exchangeRate(rowB)) == 0
+                && Double.compare(a.estimatedGdp(rowA), b.estimatedGdp(rowB)) == 0
+                && Objects.equals(a.flagUrl(rowA), b.flagUrl(rowB));
+    }
+
+    /** Rows of the new snapshot that did not exist before. */
+    public int[] getInserted() { return inserted; }
+
+    /** Rows of the new snapshot whose values changed. */
+    public int[] getUpdated() { return updated; }
+
+    /** Names that are gone from the new snapshot. */
+    public String[] getRemoved() { return removed; }
+
+    public int changeCount() {
+        return inserted.length + updated.length + removed.length;
+    }
+
+    public boolean isEmpty() {
+        return changeCount() == 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CountrySnapshot}; readers never block, writers swap whole snapshots.
+ * Every swap is announced with a {@link CountrySnapshotPublishedEvent}.
+ */
+@Component
+public class CountrySnapshotHolder {
+
+    private final AtomicReference<CountrySnapshot> current = new AtomicReference<>(CountrySnapshot.empty());
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CountrySnapshotHolder(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CountrySnapshot get() {
+        return current.get();
+    }
+
+    /** Replace the whole dataset. */
+    public synchronized CountrySnapshot publish(Collection<Country> countries) {
+        return swap(CountrySnapshot.build(current.get().getVersion() + 1, countries));
+    }
+
+    /** Replace the whole dataset with an already built snapshot, assigning it the next version. */
+    public synchronized CountrySnapshot publish(CountrySnapshot staged) {
+        return swap(staged.withVersion(current.get().getVersion() + 1));
+    }
+
+    /** Drop one row by exact name; returns the new snapshot, or the current one if the name is absent. */
+    public synchronized CountrySnapshot remove(String name) {
+        CountrySnapshot snapshot = current.get();
+        int row = snapshot.indexOf(name);
+        if (row < 0) return snapshot;
+        return swap(snapshot.without(row, snapshot.getVersion() + 1));
+    }
+
+    private CountrySnapshot swap(CountrySnapshot next) {
+        CountrySnapshot previous = current.getAndSet(next);
+        eventPublisher.publishEvent(new CountrySnapshotPublishedEvent(previous, next));
+        return next;
+    }
+}
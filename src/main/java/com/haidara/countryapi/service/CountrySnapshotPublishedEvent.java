@@ -0,0 +1,5 @@
+package com.haidara.countryapi.service;
+
+/** Published after {@link CountrySnapshotHolder} swaps in a new snapshot. */
+public record CountrySnapshotPublishedEvent(CountrySnapshot previous, CountrySnapshot current) {
+}
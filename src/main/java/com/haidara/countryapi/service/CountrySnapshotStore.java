@@ -0,0 +1,67 @@
+package com.haidara.countryapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Keeps the last published dataset in a local file so a restart can serve immediately
+ * instead of waiting for the upstream APIs. Files are replaced atomically; a missing or
+ * unreadable file simply means a cold start.
+ */
+@Component
+public class CountrySnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CountrySnapshotStore.class);
+
+    private final boolean enabled;
+    private final Path path;
+
+    public CountrySnapshotStore(@Value("${app.snapshot.enabled:true}") boolean enabled,
+                                @Value("${app.snapshot.path:data/countries.snapshot}") String path) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+    }
+
+    public Optional<CountrySnapshotCodec.Persisted> load() {
+        if (!enabled || !Files.isRegularFile(path)) return Optional.empty();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            return Optional.of(CountrySnapshotCodec.read(in));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable snapshot file {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Write to a sibling temp file and move it into place, so readers never see a torn file. */
+    public synchronized void save(CountrySnapshotCodec.Persisted state) {
+        if (!enabled) return;
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                    CountrySnapshotCodec.write(out, state);
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // The in-memory state is authoritative; losing the file only costs a cold start
+            logger.error("Failed to save snapshot file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.haidara.countryapi.service;
+
+/** Sort orders accepted by {@code GET /countries?sort=}. */
+public enum CountrySort {
+    GDP_DESC("gdp_desc"),
+    GDP_ASC("gdp_asc"),
+    POPULATION_DESC("population_desc"),
+    POPULATION_ASC("population_asc");
+
+    private final String param;
+
+    CountrySort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() { return param; }
+
+    /** Parse a query parameter; unknown or missing values mean "no sort". */
+    public static CountrySort fromParam(String value) {
+        if (value == null) return null;
+        for (CountrySort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value)) return sort;
+        }
+        return null;
+    }
+}
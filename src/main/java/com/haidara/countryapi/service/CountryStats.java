@@ -0,0 +1,260 @@
+package com.haidara.countryapi.service;
+
+import java.util.*;
+
+/**
+ * Aggregates over a {@link CountrySnapshot}, built in one pass over its rows: per-region,
+ * per-currency and overall population/GDP values kept sorted, so sums, extremes, means and any
+ * percentile are O(1) reads. Removing a row updates only the groups it belonged to.
+ */
+public final class CountryStats {
+
+    /** Numeric fields that can be aggregated or ranked. */
+    public enum Field {
+        POPULATION("population"),
+        ESTIMATED_GDP("estimated_gdp"),
+        EXCHANGE_RATE("exchange_rate");
+
+        private final String param;
+
+        Field(String param) {
+            this.param = param;
+        }
+
+        public String getParam() { return param; }
+
+        /** Parse a query parameter; unknown values return null. */
+        public static Field fromParam(String value) {
+            for (Field field : values()) {
+                if (field.param.equalsIgnoreCase(value)) return field;
+            }
+            return null;
+        }
+
+        double valueOf(CountrySnapshot snapshot, int row) {
+            return switch (this) {
+                case POPULATION -> snapshot.population(row) == CountrySnapshot.NO_POPULATION
+                        ? Double.NaN : snapshot.population(row);
+                case ESTIMATED_GDP -> snapshot.estimatedGdp(row);
+                case EXCHANGE_RATE -> snapshot.exchangeRate(row);
+            };
+        }
+    }
+
+    /** Fields aggregated per group; exchange rates are only ranked. */
+    public static final Field[] GROUP_FIELDS = {Field.POPULATION, Field.ESTIMATED_GDP};
+
+    /** One group of rows: its size and, per aggregated field, the non-null values in ascending order. */
+    public static final class Group {
+        private final String key;
+        private final int count;
+        private final double[][] sorted;
+        private final double[] sums;
+
+        private Group(String key, int count, double[][] sorted, double[] sums) {
+            this.key = key;
+            this.count = count;
+            this.sorted = sorted;
+            this.sums = sums;
+        }
+
+        public String getKey() { return key; }
+
+        public int getCount() { return count; }
+
+        public int valueCount(Field field) { return sorted[slot(field)].length; }
+
+        public double sum(Field field) { return sums[slot(field)]; }
+
+        public double min(Field field) { return percentile(field, 0); }
+
+        public double max(Field field) { return percentile(field, 100); }
+
+        public double mean(Field field) {
+            int n = valueCount(field);
+            return n == 0 ? Double.NaN : sums[slot(field)] / n;
+        }
+
+        /** Nearest-rank percentile, {@code p} in [0, 100]; NaN when the group has no values. */
+        public double percentile(Field field, double p) {
+            double[] values = sorted[slot(field)];
+            if (values.length == 0) return Double.NaN;
+            int rank = (int) Math.ceil(p / 100.0 * values.length);
+            return values[Math.max(0, Math.min(values.length - 1, rank - 1))];
+        }
+
+        private Group without(double[] removed) {
+            double[][] nextSorted = new double[sorted.length][];
+            double[] nextSums = sums.clone();
+            for (int f = 0; f < sorted.length; f++) {
+                nextSorted[f] = sorted[f];
+                if (Double.isNaN(removed[f])) continue;
+                int at = Arrays.binarySearch(sorted[f], removed[f]);
+                if (at < 0) continue;
+                nextSorted[f] = new double[sorted[f].length - 1];
+                System.arraycopy(sorted[f], 0, nextSorted[f], 0, at);
+                System.arraycopy(sorted[f], at + 1, nextSorted[f], at, sorted[f].length - at - 1);
+                nextSums[f] -= removed[f];
+            }
+            return new Group(key, count - 1, nextSorted, nextSums);
+        }
+    }
+
+    private final Group total;
+    private final Map<String, Group> byRegion;
+    private final Map<String, Group> byCurrency;
+    private final int[] byRateAsc;
+    private final int[] byRateDesc;
+
+    CountryStats(CountrySnapshot snapshot) {
+        Accumulator all = new Accumulator("all");
+        Map<String, Accumulator> regions = new LinkedHashMap<>();
+        Map<String, Accumulator> currencies = new LinkedHashMap<>();
+        double[] values = new double[GROUP_FIELDS.length];
+        for (int row = 0; row < snapshot.size(); row++) {
+            for (int f = 0; f < GROUP_FIELDS.length; f++) values[f] = GROUP_FIELDS[f].valueOf(snapshot, row);
+            all.add(values);
+            String region = snapshot.region(row);
+            if (region != null)
+                regions.computeIfAbsent(CountryIndex.normalize(region), k -> new Accumulator(region)).add(values);
+            String currency = snapshot.currencyCode(row);
+            if (currency != null)
+                currencies.computeIfAbsent(CountryIndex.normalize(currency), k -> new Accumulator(currency)).add(values);
+        }
+        this.total = all.toGroup();
+        this.byRegion = toGroups(regions);
+        this.byCurrency = toGroups(currencies);
+
+        Integer[] rows = new Integer[snapshot.size()];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        this.byRateAsc = sorted(rows, (a, b) -> Double.compare(snapshot.exchangeRate(a), snapshot.exchangeRate(b)));
+        this.byRateDesc = sorted(rows, (a, b) -> Double.compare(snapshot.exchangeRate(b), snapshot.exchangeRate(a)));
+    }
+
+    private CountryStats(Group total, Map<String, Group> byRegion, Map<String, Group> byCurrency,
+                         int[] byRateAsc, int[] byRateDesc) {
+        this.total = total;
+        this.byRegion = byRegion;
+        this.byCurrency = byCurrency;
+        this.byRateAsc = byRateAsc;
+        this.byRateDesc = byRateDesc;
+    }
+
+    private static Map<String, Group> toGroups(Map<String, Accumulator> accumulators) {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        accumulators.forEach((key, acc) -> groups.put(key, acc.toGroup()));
+        return groups;
+    }
+
+    private static int[] sorted(Integer[] rows, Comparator<Integer> comparator) {
+        Integer[] copy = rows.clone();
+        Arrays.sort(copy, comparator);
+        int[] order = new int[copy.length];
+        for (int i = 0; i < copy.length; i++) order[i] = copy[i];
+        return order;
+    }
+
+    /** Stats of {@code snapshot} once {@code row} is removed from it; untouched groups are shared. */
+    CountryStats without(CountrySnapshot snapshot, int row) {
+        double[] removed = new double[GROUP_FIELDS.length];
+        for (int f = 0; f < GROUP_FIELDS.length; f++) removed[f] = GROUP_FIELDS[f].valueOf(snapshot, row);
+        return new CountryStats(total.without(removed),
+                withoutIn(byRegion, snapshot.region(row), removed),
+                withoutIn(byCurrency, snapshot.currencyCode(row), removed),
+                withoutRow(byRateAsc, row), withoutRow(byRateDesc, row));
+    }
+
+    private static Map<String, Group> withoutIn(Map<String, Group> groups, String value, double[] removed) {
+        if (value == null) return groups;
+        String key = CountryIndex.normalize(value);
+        Group group = groups.get(key);
+        if (group == null) return groups;
+        Map<String, Group> next = new LinkedHashMap<>(groups);
+        if (group.getCount() <= 1) next.remove(key);
+        else next.put(key, group.without(removed));
+        return next;
+    }
+
+    /** Drop {@code row} from an ordering and renumber the rows after it, as {@link CountrySnapshot#without} does. */
+    private static int[] withoutRow(int[] ordering, int row) {
+        int[] next = new int[ordering.length - 1];
+        int n = 0;
+        for (int r : ordering) {
+            if (r == row) continue;
+            next[n++] = r > row ? r - 1 : r;
+        }
+        return next;
+    }
+
+    public Group getTotal() { return total; }
+
+    /** Groups keyed by their display value, in first-seen order. */
+    public Collection<Group> regions() { return byRegion.values(); }
+
+    public Collection<Group> currencies() { return byCurrency.values(); }
+
+    public Optional<Group> region(String region) {
+        return Optional.ofNullable(byRegion.get(CountryIndex.normalize(region)));
+    }
+
+    public Optional<Group> currency(String currency) {
+        return Optional.ofNullable(byCurrency.get(CountryIndex.normalize(currency)));
+    }
+
+    /**
+     * Up to {@code n} rows with the largest (or smallest) values of {@code field}, skipping rows
+     * without a value. Reads a presorted ordering, so the cost is O(n) plus any skipped rows.
+     */
+    public int[] top(CountrySnapshot snapshot, Field field, int n, boolean descending) {
+        int[] ordering = switch (field) {
+            case POPULATION -> snapshot.getIndex().ordering(descending ? CountrySort.POPULATION_DESC : CountrySort.POPULATION_ASC);
+            case ESTIMATED_GDP -> snapshot.getIndex().ordering(descending ? CountrySort.GDP_DESC : CountrySort.GDP_ASC);
+            case EXCHANGE_RATE -> descending ? byRateDesc : byRateAsc;
+        };
+        int[] result = new int[Math.min(n, ordering.length)];
+        int count = 0;
+        for (int i = 0; i < ordering.length && count < result.length; i++) {
+            if (!Double.isNaN(field.valueOf(snapshot, ordering[i]))) result[count++] = ordering[i];
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /** Growable per-field value lists for one group while the snapshot is scanned. */
+    private static final class Accumulator {
+        private final String key;
+        private int count;
+        private final double[][] values = new double[GROUP_FIELDS.length][16];
+        private final int[] sizes = new int[GROUP_FIELDS.length];
+        private final double[] sums = new double[GROUP_FIELDS.length];
+
+        Accumulator(String key) {
+            this.key = key;
+        }
+
+        void add(double[] row) {
+            count++;
+            for (int f = 0; f < row.length; f++) {
+                if (Double.isNaN(row[f])) continue;
+                if (sizes[f] == values[f].length) values[f] = Arrays.copyOf(values[f], sizes[f] * 2);
+                values[f][sizes[f]++] = row[f];
+                sums[f] += row[f];
+            }
+        }
+
+        Group toGroup() {
+            double[][] sorted = new double[GROUP_FIELDS.length][];
+            for (int f = 0; f < sorted.length; f++) {
+                sorted[f] = Arrays.copyOf(values[f], sizes[f]);
+                Arrays.sort(sorted[f]);
+            }
+            return new Group(key, count, sorted, sums.clone());
+        }
+    }
+
+    private static int slot(Field field) {
+        for (int f = 0; f < GROUP_FIELDS.length; f++) {
+            if (GROUP_FIELDS[f] == field) return f;
+        }
+        throw new IllegalArgumentException("Field is not aggregated: " + field.getParam());
+    }
+}
@@ -0,0 +1,148 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Serves {@code /countries/stats} from the aggregates each snapshot carries.
+ * Responses are encoded once per snapshot version and request, like the country listings.
+ */
+@Service
+public class CountryStatsService {
+
+    private static final double[] DEFAULT_PERCENTILES = {50, 90, 99};
+
+    private final CountrySnapshotHolder snapshotHolder;
+    private final JsonResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.query.max-limit:1000}")
+    private int maxLimit;
+
+    public CountryStatsService(CountrySnapshotHolder snapshotHolder, JsonResponseCache responseCache,
+                               ObjectMapper objectMapper) {
+        this.snapshotHolder = snapshotHolder;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Aggregates over every country. */
+    public JsonResponseCache.CachedJson getSummaryJson(String percentiles) {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        double[] ps = parsePercentiles(percentiles);
+        return responseCache.get(snapshot.getVersion(), "stats|all|" + Arrays.toString(ps),
+                () -> toJson(summaryOf(snapshot.getStats().getTotal(), null, ps)));
+    }
+
+    /** Aggregates for every region ({@code by=region}) or currency ({@code by=currency}). */
+    public JsonResponseCache.CachedJson getGroupsJson(String by, String percentiles) {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        double[] ps = parsePercentiles(percentiles);
+        return responseCache.get(snapshot.getVersion(), "stats|" + by + "|*|" + Arrays.toString(ps), () -> {
+            CountryStats stats = snapshot.getStats();
+            Collection<CountryStats.Group> groups = by.equals("region") ? stats.regions() : stats.currencies();
+            List<Map<String, Object>> body = new ArrayList<>(groups.size());
+            for (CountryStats.Group group : groups) body.add(summaryOf(group, by, ps));
+            return toJson(body);
+        });
+    }
+
+    /** Aggregates for one region or currency, matched ignoring case. */
+    public Optional<JsonResponseCache.CachedJson> getGroupJson(String by, String key, String percentiles) {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        double[] ps = parsePercentiles(percentiles);
+        CountryStats stats = snapshot.getStats();
+        Optional<CountryStats.Group> group = by.equals("region") ? stats.region(key) : stats.currency(key);
+        return group.map(g -> responseCache.get(snapshot.getVersion(),
+                "stats|" + by + "|=" + g.getKey() + "|" + Arrays.toString(ps),
+                () -> toJson(summaryOf(g, by, ps))));
+    }
+
+    /** The {@code n} countries with the highest (or lowest) value of {@code field}. */
+    public JsonResponseCache.CachedJson getTopJson(String field, int n, String order) {
+        CountryStats.Field f = CountryStats.Field.fromParam(field);
+        if (f == null) throw new IllegalArgumentException("Unknown field: " + field);
+        if (n < 1 || n > maxLimit) throw new IllegalArgumentException("n must be between 1 and " + maxLimit);
+        boolean descending;
+        if ("desc".equalsIgnoreCase(order)) descending = true;
+        else if ("asc".equalsIgnoreCase(order)) descending = false;
+        else throw new IllegalArgumentException("order must be asc or desc");
+
+        CountrySnapshot snapshot = snapshotHolder.get();
+        return responseCache.get(snapshot.getVersion(),
+                "stats|top|" + f.getParam() + "|" + n + "|" + descending, () -> {
+            int[] rows = snapshot.getStats().top(snapshot, f, n, descending);
+            List<Map<String, Object>> body = new ArrayList<>(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("rank", i + 1);
+                entry.put("name", snapshot.name(rows[i]));
+                entry.put("region", snapshot.region(rows[i]));
+                entry.put("currency_code", snapshot.currencyCode(rows[i]));
+                entry.put(f.getParam(), number(f, f.valueOf(snapshot, rows[i])));
+                body.add(entry);
+            }
+            return toJson(body);
+        });
+    }
+
+    private static Map<String, Object> summaryOf(CountryStats.Group group, String by, double[] percentiles) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (by != null) summary.put(by.equals("region") ? "region" : "currency_code", group.getKey());
+        summary.put("count", group.getCount());
+        for (CountryStats.Field field : CountryStats.GROUP_FIELDS) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", group.valueCount(field));
+            values.put("sum", number(field, group.sum(field)));
+            values.put("min", number(field, group.min(field)));
+            values.put("max", number(field, group.max(field)));
+            values.put("mean", nullIfNaN(group.mean(field)));
+            for (double p : percentiles) values.put(percentileName(p), number(field, group.percentile(field, p)));
+            summary.put(field.getParam(), values);
+        }
+        return summary;
+    }
+
+    /** Populations are whole numbers and are reported as such. */
+    private static Object number(CountryStats.Field field, double value) {
+        if (Double.isNaN(value)) return null;
+        return field == CountryStats.Field.POPULATION ? (Object) (long) value : (Object) value;
+    }
+
+    private static Double nullIfNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static String percentileName(double p) {
+        return p == Math.rint(p) ? "p" + (long) p : "p" + p;
+    }
+
+    private static double[] parsePercentiles(String percentiles) {
+        if (percentiles == null || percentiles.isBlank()) return DEFAULT_PERCENTILES;
+        String[] parts = percentiles.split(",");
+        double[] ps = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                ps[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid percentile: " + parts[i].trim());
+            }
+            if (!(ps[i] > 0 && ps[i] <= 100))
+                throw new IllegalArgumentException("Percentiles must be in (0, 100]");
+        }
+        return ps;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
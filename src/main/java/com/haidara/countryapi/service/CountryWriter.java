@@ -0,0 +1,122 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import com.haidara.countryapi.model.DatasetMetadata;
+import com.haidara.countryapi.repository.CountryRepository;
+import com.haidara.countryapi.repository.DatasetMetadataRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists refresh results in one transaction using JDBC batches
+ * (see {@code hibernate.jdbc.batch_size}), so readers never see a partial table.
+ */
+@Service
+public class CountryWriter {
+
+    private final CountryRepository countryRepository;
+    private final DatasetMetadataRepository metadataRepository;
+    private final EntityManager entityManager;
+
+    @Value("${app.refresh.batch-size:500}")
+    private int batchSize;
+
+    public CountryWriter(CountryRepository countryRepository, DatasetMetadataRepository metadataRepository,
+                         EntityManager entityManager) {
+        this.countryRepository = countryRepository;
+        this.metadataRepository = metadataRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Write only the rows in {@code diff}; unchanged rows keep the time they last changed and the
+     * refresh time is recorded once for the dataset.
+     */
+    @Transactional
+    public void applyDiff(CountrySnapshot next, CountrySnapshotDiff diff, LocalDateTime refreshedAt) {
+        String[] removed = diff.getRemoved();
+        for (int from = 0; from < removed.length; from += batchSize) {
+            int to = Math.min(removed.length, from + batchSize);
+            countryRepository.deleteAllByIdInBatch(Arrays.asList(removed).subList(from, to));
+        }
+
+        int[] updated = diff.getUpdated();
+        for (int from = 0; from < updated.length; from += batchSize) {
+            int to = Math.min(updated.length, from + batchSize);
+            List<String> names = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) names.add(next.name(updated[i]));
+
+            // One SELECT ... IN per batch; dirty checking then emits batched UPDATEs on flush
+            Map<String, Country> existing = countryRepository.findAllById(names).stream()
+                    .collect(Collectors.toMap(Country::getName, Function.identity()));
+            for (int i = from; i < to; i++) {
+                int row = updated[i];
+                Country entity = existing.get(next.name(row));
+                if (entity == null) entityManager.persist(next.toCountry(row));
+                else copyRow(next, row, entity);
+            }
+            flushAndClear();
+        }
+
+        insertRows(next, diff.getInserted());
+        stampRefreshTime(refreshedAt);
+    }
+
+    /** Replace the whole table with {@code next}. */
+    @Transactional
+    public void replaceAll(CountrySnapshot next) {
+        countryRepository.deleteAllInBatch();
+        int[] rows = new int[next.size()];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        insertRows(next, rows);
+        stampRefreshTime(next.getLastRefreshedAt());
+    }
+
+    /** When the whole dataset was last refreshed, or null before the first refresh. */
+    @Transactional(readOnly = true)
+    public LocalDateTime lastRefreshTime() {
+        return metadataRepository.findById(DatasetMetadata.COUNTRIES)
+                .map(DatasetMetadata::getLastRefreshedAt)
+                .orElse(null);
+    }
+
+    private void stampRefreshTime(LocalDateTime refreshedAt) {
+        metadataRepository.save(new DatasetMetadata(DatasetMetadata.COUNTRIES, refreshedAt));
+    }
+
+    private void insertRows(CountrySnapshot next, int[] rows) {
+        for (int i = 0; i < rows.length; i++) {
+            // persist() rather than save(): the id is assigned, so save() would SELECT first
+            entityManager.persist(next.toCountry(rows[i]));
+            if ((i + 1) % batchSize == 0) flushAndClear();
+        }
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static void copyRow(CountrySnapshot snapshot, int row, Country entity) {
+        Country source = snapshot.toCountry(row);
+        entity.setCapital(source.getCapital());
+        entity.setRegion(source.getRegion());
+        entity.setPopulation(source.getPopulation());
+        entity.setCurrencyCode(source.getCurrencyCode());
+        entity.setExchangeRate(source.getExchangeRate());
+        entity.setEstimatedGdp(source.getEstimatedGdp());
+        entity.setFlagUrl(source.getFlagUrl());
+        entity.setLastRefreshedAt(source.getLastRefreshedAt());
+    }
+}
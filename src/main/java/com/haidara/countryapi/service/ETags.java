@@ -0,0 +1,40 @@
+package com.haidara.countryapi.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** Strong entity tags for in-memory response bodies. */
+public final class ETags {
+
+    private ETags() {}
+
+    /** Quoted, content-derived tag: stable across restarts and instances for identical bytes. */
+    public static String of(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The tag for {@code etag}'s body sent with a content-coding such as gzip. Strong validators must differ
+     * per coding, or caches and If-Range could mix up the encoded and identity bytes.
+     */
+    public static String forCoding(String etag, String coding) {
+        return etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+    }
+
+    /** True when an If-None-Match header lists {@code etag} (weakly compared) or is a wildcard. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package com.haidara.countryapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link ClusterStore} in a directory every instance can reach. The lease is a small text file
+ * ({@code leader.lease}: holder and expiry) changed only under an OS lock on {@code leader.lock};
+ * snapshots are {@code snapshot-<generation>.bin} files in the {@link CountrySnapshotCodec} format,
+ * with {@code LATEST} naming the newest. Every file is written to a temp file and moved into place.
+ * Lease expiry uses wall-clock time, so hosts sharing the directory need roughly synced clocks.
+ */
+@Component
+public class FileClusterStore implements ClusterStore {
+
+    private static final int KEEP_GENERATIONS = 3;
+
+    private final Path dir;
+
+    public FileClusterStore(@Value("${app.cluster.dir:data/cluster}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    @Override
+    public String acquireLease(String nodeId, Duration ttl) {
+        return locked(() -> {
+            Lease lease = readLease();
+            long now = System.currentTimeMillis();
+            if (lease == null || lease.expiresAt() < now || lease.holder().equals(nodeId)) {
+                writeAtomically(dir.resolve("leader.lease"),
+                        (nodeId + "\n" + (now + ttl.toMillis())).getBytes(StandardCharsets.UTF_8));
+                return nodeId;
+            }
+            return lease.holder();
+        });
+    }
+
+    @Override
+    public void releaseLease(String nodeId) {
+        locked(() -> {
+            Lease lease = readLease();
+            if (lease != null && lease.holder().equals(nodeId)) Files.deleteIfExists(dir.resolve("leader.lease"));
+            return null;
+        });
+    }
+
+    @Override
+    public long publish(String nodeId, CountrySnapshotCodec.Persisted state) {
+        return locked(() -> {
+            Lease lease = readLease();
+            if (lease == null || !lease.holder().equals(nodeId) || lease.expiresAt() < System.currentTimeMillis())
+                return -1L;
+            long generation = latestGeneration() + 1;
+            Path file = snapshotFile(generation);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                    CountrySnapshotCodec.write(out, state);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            writeAtomically(dir.resolve("LATEST"), Long.toString(generation).getBytes(StandardCharsets.UTF_8));
+            Files.deleteIfExists(snapshotFile(generation - KEEP_GENERATIONS));
+            return generation;
+        });
+    }
+
+    @Override
+    public long latestGeneration() {
+        try {
+            return Long.parseLong(Files.readString(dir.resolve("LATEST")).trim());
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Readers take no lock: files are only ever moved into place and kept for a few generations. */
+    @Override
+    public Optional<Published> readLatest() {
+        long generation = latestGeneration();
+        if (generation == 0) return Optional.empty();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotFile(generation)), 64 * 1024)) {
+            return Optional.of(new Published(generation, CountrySnapshotCodec.read(in)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Lease(String holder, long expiresAt) {}
+
+    private Lease readLease() throws IOException {
+        try {
+            String[] lines = Files.readString(dir.resolve("leader.lease")).split("\n");
+            return lines.length == 2 ? new Lease(lines[0], Long.parseLong(lines[1].trim())) : null;
+        } catch (NoSuchFileException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Path snapshotFile(long generation) {
+        return dir.resolve(String.format("snapshot-%020d.bin", generation));
+    }
+
+    private void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Runs {@code action} holding the directory lock, which serializes nodes as well as local threads. */
+    private synchronized <T> T locked(Callable<T> action) {
+        try {
+            Files.createDirectories(dir);
+            try (FileChannel channel = FileChannel.open(dir.resolve("leader.lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.call();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,45 +1,101 @@
 package com.haidara.countryapi.service;
 
-import com.haidara.countryapi.model.Country;
-import com.haidara.countryapi.repository.CountryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Renders the summary PNG once per distinct set of inputs and keeps the bytes in memory.
+ * Rendering happens on {@code imageExecutor} after each snapshot swap, never on the request path
+ * except for the very first request.
+ */
 @Service
 public class ImageService {
 
-    private final CountryRepository countryRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
+    private static final DateTimeFormatter REFRESH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public ImageService(CountryRepository countryRepository) {
-        this.countryRepository = countryRepository;
-        createCacheDirectory();
+    /** Encoded summary image with a strong ETag derived from its bytes. */
+    public record SummaryImage(byte[] png, String etag, long version) {}
+
+    /** Everything the picture depends on; equal inputs produce an identical image. */
+    private record Inputs(int total, String lastRefreshed, String[] topLines) {
+        boolean sameAs(Inputs other) {
+            return other != null && total == other.total && lastRefreshed.equals(other.lastRefreshed)
+                    && java.util.Arrays.equals(topLines, other.topLines);
+        }
     }
 
-    private void createCacheDirectory() {
-        try {
-            Files.createDirectories(Paths.get("cache"));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to create cache directory", e);
+    private record Rendered(Inputs inputs, SummaryImage image) {}
+
+    private final CountrySnapshotHolder snapshotHolder;
+    private final Executor imageExecutor;
+    private final CountryMetrics metrics;
+
+    private volatile Rendered current;
+
+    public ImageService(CountrySnapshotHolder snapshotHolder, @Qualifier("imageExecutor") Executor imageExecutor,
+                        CountryMetrics metrics) {
+        this.snapshotHolder = snapshotHolder;
+        this.imageExecutor = imageExecutor;
+        this.metrics = metrics;
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CountrySnapshotPublishedEvent event) {
+        imageExecutor.execute(this::generateSummaryImage);
+    }
+
+    /** Render from the current snapshot unless the last render already used the same inputs. */
+    public synchronized SummaryImage generateSummaryImage() {
+        CountrySnapshot snapshot = snapshotHolder.get();
+        Inputs inputs = inputsOf(snapshot);
+        Rendered rendered = current;
+        if (rendered != null && inputs.sameAs(rendered.inputs())) return rendered.image();
+
+        long start = System.nanoTime();
+        byte[] png = render(inputs);
+        SummaryImage image = new SummaryImage(png, ETags.of(png), snapshot.getVersion());
+        current = new Rendered(inputs, image);
+        long elapsed = System.nanoTime() - start;
+        metrics.imageRenderTimer().record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Rendered summary image for snapshot v{} in {} ms", snapshot.getVersion(), elapsed / 1_000_000);
+        return image;
+    }
+
+    /** The image for the current data, or null while no countries have been loaded. */
+    public SummaryImage getSummaryImage() {
+        if (snapshotHolder.get().size() == 0) return null;
+        Rendered rendered = current;
+        return rendered != null ? rendered.image() : generateSummaryImage();
+    }
+
+    private static Inputs inputsOf(CountrySnapshot snapshot) {
+        int[] byGdp = snapshot.getIndex().ordering(CountrySort.GDP_DESC);
+        String[] top = new String[Math.min(byGdp.length, 5)];
+        for (int i = 0; i < top.length; i++) {
+            int row = byGdp[i];
+            top[i] = String.format("%d. %s - $%.2f", i + 1, snapshot.name(row), snapshot.estimatedGdp(row));
         }
+        String last = snapshot.getLastRefreshedAt() != null
+                ? snapshot.getLastRefreshedAt().format(REFRESH_FORMAT)
+                : "Never";
+        return new Inputs(snapshot.size(), last, top);
     }
 
-    public void generateSummaryImage() {
+    private static byte[] render(Inputs inputs) {
         try {
-            long total = countryRepository.count();
-            List<Country> top = countryRepository.findTop5ByOrderByEstimatedGdpDesc();
-            String last = countryRepository.findLastRefreshTime()
-                    .map(t -> t.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                    .orElse("Never");
-
             BufferedImage img = new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB);
             Graphics2D g = img.createGraphics();
 
@@ -51,31 +107,24 @@ public class ImageService {
             g.drawString("Country GDP Summary", 50, 50);
 
             g.setFont(new Font("Arial", Font.PLAIN, 16));
-            g.drawString("Total Countries: " + total, 50, 90);
-            g.drawString("Last Refreshed: " + last, 50, 115);
+            g.drawString("Total Countries: " + inputs.total(), 50, 90);
+            g.drawString("Last Refreshed: " + inputs.lastRefreshed(), 50, 115);
 
             g.drawString("Top 5 Countries by GDP:", 50, 150);
 
             g.setFont(new Font("Arial", Font.PLAIN, 14));
             int y = 180;
-            for (int i = 0; i < Math.min(top.size(), 5); i++) {
-                Country c = top.get(i);
-                String line = String.format("%d. %s - $%.2f", i + 1, c.getName(), c.getEstimatedGdp());
+            for (String line : inputs.topLines()) {
                 g.drawString(line, 70, y);
                 y += 25;
             }
             g.dispose();
 
-            File output = new File("cache/summary.png");
-            ImageIO.write(img, "png", output);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            ImageIO.write(img, "png", out);
+            return out.toByteArray();
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate summary image", e);
         }
     }
-
-    public File getSummaryImage() {
-        File file = new File("cache/summary.png");
-        if (!file.exists() || file.length() == 0) generateSummaryImage();
-        return file.exists() ? file : null;
-    }
 }
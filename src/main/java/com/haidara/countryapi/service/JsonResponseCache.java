@@ -0,0 +1,85 @@
+package com.haidara.countryapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON responses keyed by (snapshot version, normalized request).
+ * A new snapshot version makes every older entry unreachable, and the map is
+ * emptied on each swap so they do not linger.
+ */
+@Component
+public class JsonResponseCache {
+
+    /**
+     * UTF-8 JSON body, its gzip encoding (or null), a strong ETag derived from the identity body
+     * (see {@link ETags#forCoding} for the gzip variant) and, for listings, the cursor of the next
+     * page (or null) and the number of rows in the body, so hits can be measured like misses.
+     */
+    public record CachedJson(byte[] body, byte[] gzipped, String etag, String nextCursor, int rows) {}
+
+    /** A freshly serialized body, its next-page cursor and its row count. */
+    public record Page(byte[] body, String nextCursor, int rows) {}
+
+    private record Key(long version, String request) {}
+
+    private final Map<Key, CachedJson> entries = new ConcurrentHashMap<>();
+    private final CountryMetrics metrics;
+
+    @Value("${app.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${app.cache.gzip-min-size:1024}")
+    private int gzipMinSize;
+
+    public JsonResponseCache(CountryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public CachedJson get(long version, String request, Supplier<byte[]> serializer) {
+        return getPage(version, request, () -> new Page(serializer.get(), null, 0));
+    }
+
+    public CachedJson getPage(long version, String request, Supplier<Page> serializer) {
+        Key key = new Key(version, request);
+        CachedJson cached = entries.get(key);
+        metrics.recordCacheLookup(cached != null);
+        if (cached != null) return cached;
+
+        cached = encode(serializer.get());
+        // Bounded by wiping rather than LRU: entries are cheap to rebuild and rarely exceed the limit
+        if (entries.size() >= maxEntries) entries.clear();
+        entries.put(key, cached);
+        return cached;
+    }
+
+    @EventListener
+    public void onSnapshotPublished(CountrySnapshotPublishedEvent event) {
+        entries.clear();
+    }
+
+    private CachedJson encode(Page page) {
+        byte[] body = page.body();
+        byte[] gzipped = body.length >= gzipMinSize ? gzip(body) : null;
+        return new CachedJson(body, gzipped, ETags.of(body), page.nextCursor(), page.rows());
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,197 @@
+package com.haidara.countryapi.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exchange rates from every refresh that fetched new ones, kept as compressed per-currency
+ * {@link RateSeries} and mirrored to an append-only log that is replayed on startup.
+ */
+@Component
+public class RateHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateHistory.class);
+
+    /** Far more currencies than any rates payload carries; a larger count means a corrupt record */
+    private static final int MAX_CURRENCIES = 4096;
+    /** Smallest encoded entry: an empty UTF string (2-byte length) and a double */
+    private static final int MIN_ENTRY_BYTES = 2 + 8;
+
+    /** One raw or downsampled point; for raw points min, max, mean and last are the same rate. */
+    public record Point(Instant time, double first, double last, double min, double max, double mean, int count) {}
+
+    private final boolean enabled;
+    private final Path path;
+    private final Map<String, RateSeries> series = new ConcurrentHashMap<>();
+    private long lastRecorded = Long.MIN_VALUE;
+
+    public RateHistory(@Value("${app.rates.history.enabled:true}") boolean enabled,
+                       @Value("${app.rates.history.path:data/rates.log}") String path) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+    }
+
+    /**
+     * Replay the log; a torn or corrupt record (e.g. the tail of a crashed append) is cut off
+     * together with everything after it, so later appends stay readable.
+     */
+    @PostConstruct
+    synchronized void load() {
+        if (!enabled || !Files.isRegularFile(path)) return;
+        long valid = 0;
+        int records = 0;
+        long length;
+        try {
+            length = Files.size(path);
+        } catch (IOException e) {
+            logger.warn("Could not read rate history log {}: {}", path, e.getMessage());
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            while (true) {
+                long time;
+                try {
+                    time = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                int n = in.readInt();
+                if (n < 0 || n > MAX_CURRENCIES || valid + 12 + (long) n * MIN_ENTRY_BYTES > length) {
+                    logger.warn("Rate history log {} has a corrupt record at offset {}; truncating", path, valid);
+                    break;
+                }
+                Map<String, Double> rates = new HashMap<>(n * 2);
+                int size = 12;
+                for (int i = 0; i < n; i++) {
+                    String code = in.readUTF();
+                    rates.put(code, in.readDouble());
+                    size += 2 + code.getBytes(StandardCharsets.UTF_8).length + 8;
+                }
+                apply(time, rates);
+                valid += size;
+                records++;
+            }
+        } catch (EOFException e) {
+            logger.warn("Rate history log {} ends in a partial record; truncating", path);
+        } catch (UTFDataFormatException e) {
+            logger.warn("Rate history log {} has a corrupt record at offset {}; truncating", path, valid);
+        } catch (IOException e) {
+            logger.warn("Could not read rate history log {}: {}", path, e.getMessage());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > valid) channel.truncate(valid);
+        } catch (IOException e) {
+            logger.warn("Could not truncate rate history log {}: {}", path, e.getMessage());
+        }
+        logger.info("Loaded {} rate history records for {} currencies", records, series.size());
+    }
+
+    /** Append one refresh's rates; ignored unless {@code at} is later than the last recorded time. */
+    public synchronized void record(Instant at, Map<String, Double> rates) {
+        long time = at.getEpochSecond();
+        if (time <= lastRecorded || rates == null || rates.isEmpty()) return;
+        if (enabled) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + rates.size() * 16);
+            try (DataOutputStream out = new DataOutputStream(buffer)) {
+                out.writeLong(time);
+                int n = 0;
+                for (Double rate : rates.values()) if (rate != null) n++;
+                out.writeInt(n);
+                for (Map.Entry<String, Double> rate : rates.entrySet()) {
+                    if (rate.getValue() == null) continue;
+                    out.writeUTF(rate.getKey());
+                    out.writeDouble(rate.getValue());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                // One write per record keeps a crash from interleaving partial records
+                Files.write(path, buffer.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                logger.error("Failed to append to rate history log {}: {}", path, e.getMessage());
+            }
+        }
+        apply(time, rates);
+    }
+
+    private void apply(long time, Map<String, Double> rates) {
+        if (time <= lastRecorded) return;
+        rates.forEach((code, rate) -> {
+            if (rate != null) series.computeIfAbsent(code.toUpperCase(Locale.ROOT), c -> new RateSeries()).append(time, rate);
+        });
+        lastRecorded = time;
+    }
+
+    public boolean hasCurrency(String code) {
+        return series.containsKey(code.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Points between {@code from} and {@code to} inclusive. With a {@code step} they are grouped
+     * into buckets aligned to the epoch, one summarizing point per non-empty bucket.
+     */
+    public List<Point> range(String code, Instant from, Instant to, Duration step) {
+        RateSeries s = series.get(code.toUpperCase(Locale.ROOT));
+        if (s == null) return List.of();
+        List<Point> points = new ArrayList<>();
+        if (step == null) {
+            s.scan(from.getEpochSecond(), to.getEpochSecond(), (t, rate) ->
+                    points.add(new Point(Instant.ofEpochSecond(t), rate, rate, rate, rate, rate, 1)));
+            return points;
+        }
+        long width = step.getSeconds();
+        Bucket bucket = new Bucket();
+        s.scan(from.getEpochSecond(), to.getEpochSecond(), (t, rate) -> {
+            long start = Math.floorDiv(t, width) * width;
+            if (bucket.count > 0 && start != bucket.start) points.add(bucket.flush());
+            bucket.add(start, rate);
+        });
+        if (bucket.count > 0) points.add(bucket.flush());
+        return points;
+    }
+
+    private static final class Bucket {
+        long start;
+        double first;
+        double last;
+        double min;
+        double max;
+        double sum;
+        int count;
+
+        void add(long bucketStart, double rate) {
+            if (count == 0) {
+                start = bucketStart;
+                first = min = max = rate;
+                sum = 0;
+            }
+            last = rate;
+            min = Math.min(min, rate);
+            max = Math.max(max, rate);
+            sum += rate;
+            count++;
+        }
+
+        Point flush() {
+            Point point = new Point(Instant.ofEpochSecond(start), first, last, min, max, sum / count, count);
+            count = 0;
+            return point;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.haidara.countryapi.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/** Serves {@code /currencies/{code}/rates} from the {@link RateHistory}. */
+@Service
+public class RateHistoryService {
+
+    private final RateHistory rateHistory;
+
+    public RateHistoryService(RateHistory rateHistory) {
+        this.rateHistory = rateHistory;
+    }
+
+    /**
+     * Rates of {@code code} between {@code from} and {@code to} (ISO instants or dates, both inclusive),
+     * one entry per observation, or one per {@code step} bucket when a step is given.
+     * Empty when the currency has never been recorded.
+     */
+    public Optional<Map<String, Object>> getRates(String code, String from, String to, String step) {
+        Instant start = from == null ? Instant.EPOCH : parseTime(from, "from", false);
+        Instant end = to == null ? Instant.now() : parseTime(to, "to", true);
+        if (start.isAfter(end)) throw new IllegalArgumentException("from must not be after to");
+        Duration width = step == null ? null : parseStep(step);
+        if (!rateHistory.hasCurrency(code)) return Optional.empty();
+
+        List<RateHistory.Point> points = rateHistory.range(code, start, end, width);
+        List<Map<String, Object>> body = new ArrayList<>(points.size());
+        for (RateHistory.Point p : points) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("t", p.time().toString());
+            if (width == null) {
+                point.put("rate", p.last());
+            } else {
+                point.put("first", p.first());
+                point.put("last", p.last());
+                point.put("min", p.min());
+                point.put("max", p.max());
+                point.put("mean", p.mean());
+                point.put("count", p.count());
+            }
+            body.add(point);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("currency_code", code.toUpperCase(Locale.ROOT));
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("step", width == null ? null : width.toString());
+        result.put("points", body);
+        return Optional.of(result);
+    }
+
+    /** A bare date means the start of that day (UTC) for {@code from} and its last second for {@code to}. */
+    private static Instant parseTime(String value, String param, boolean endOfDay) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            try {
+                LocalDate date = LocalDate.parse(value);
+                return endOfDay
+                        ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusSeconds(1)
+                        : date.atStartOfDay(ZoneOffset.UTC).toInstant();
+            } catch (DateTimeParseException ignored) {
+                throw new IllegalArgumentException(param + " must be an ISO-8601 instant or date");
+            }
+        }
+    }
+
+    private static Duration parseStep(String value) {
+        Duration step;
+        try {
+            step = Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("step must be an ISO-8601 duration such as PT1H or P1D");
+        }
+        if (step.getSeconds() < 1) throw new IllegalArgumentException("step must be at least one second");
+        return step;
+    }
+}
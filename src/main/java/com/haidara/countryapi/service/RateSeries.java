@@ -0,0 +1,144 @@
+package com.haidara.countryapi.service;
+
+import java.util.Arrays;
+
+/**
+ * Append-only series of (epoch second, rate) points for one currency, compressed into a byte array:
+ * timestamps as varint deltas and values XOR-ed with the previous value, keeping only the
+ * non-zero bytes. A checkpoint every {@value #CHECKPOINT_INTERVAL} points lets range scans start
+ * near {@code from} instead of decoding from the beginning.
+ */
+final class RateSeries {
+
+    static final int CHECKPOINT_INTERVAL = 256;
+
+    /** Receives decoded points in time order. */
+    interface PointConsumer {
+        void accept(long epochSecond, double rate);
+    }
+
+    private byte[] data = new byte[64];
+    private int length;
+    private int count;
+    private long lastTime;
+    private long lastBits;
+
+    // Decoder state at the start of every CHECKPOINT_INTERVAL-th point
+    private int[] checkpointOffsets = new int[4];
+    private long[] checkpointTimes = new long[4];
+    private long[] checkpointPrevTimes = new long[4];
+    private long[] checkpointPrevBits = new long[4];
+
+    /** Append a point; returns false when it is not newer than the last one. */
+    synchronized boolean append(long epochSecond, double rate) {
+        if (count > 0 && epochSecond <= lastTime) return false;
+        if (count % CHECKPOINT_INTERVAL == 0) checkpoint(epochSecond);
+
+        ensureCapacity(10 + 9);
+        writeVarLong(epochSecond - lastTime);
+        long bits = Double.doubleToLongBits(rate);
+        writeXor(bits ^ lastBits);
+
+        lastTime = epochSecond;
+        lastBits = bits;
+        count++;
+        return true;
+    }
+
+    private void checkpoint(long epochSecond) {
+        int n = count / CHECKPOINT_INTERVAL;
+        if (n == checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, n * 2);
+            checkpointTimes = Arrays.copyOf(checkpointTimes, n * 2);
+            checkpointPrevTimes = Arrays.copyOf(checkpointPrevTimes, n * 2);
+            checkpointPrevBits = Arrays.copyOf(checkpointPrevBits, n * 2);
+        }
+        checkpointOffsets[n] = length;
+        checkpointTimes[n] = epochSecond;
+        checkpointPrevTimes[n] = lastTime;
+        checkpointPrevBits[n] = lastBits;
+    }
+
+    /** Feed every point with {@code from <= time <= to} to {@code consumer}, oldest first. */
+    synchronized void scan(long from, long to, PointConsumer consumer) {
+        if (count == 0 || from > to || to < checkpointTimes[0]) return;
+        int checkpoints = (count + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        // Last checkpoint whose first point is at or before from
+        int lo = 0;
+        int hi = checkpoints - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (checkpointTimes[mid] <= from) lo = mid;
+            else hi = mid - 1;
+        }
+        int offset = checkpointOffsets[lo];
+        long time = checkpointPrevTimes[lo];
+        long bits = checkpointPrevBits[lo];
+        int remaining = count - lo * CHECKPOINT_INTERVAL;
+
+        int[] pos = {offset};
+        for (int i = 0; i < remaining; i++) {
+            time += readVarLong(pos);
+            bits ^= readXor(pos);
+            if (time > to) return;
+            if (time >= from) consumer.accept(time, Double.longBitsToDouble(bits));
+        }
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /** Compressed bytes held, excluding checkpoints. */
+    synchronized int byteSize() {
+        return length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private long readVarLong(int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /** Header byte (leading zero bytes << 4 | meaningful byte count), then the meaningful bytes. */
+    private void writeXor(long xor) {
+        if (xor == 0) {
+            data[length++] = 0;
+            return;
+        }
+        int lead = Long.numberOfLeadingZeros(xor) / 8;
+        int trail = Long.numberOfTrailingZeros(xor) / 8;
+        int meaningful = 8 - lead - trail;
+        data[length++] = (byte) (lead << 4 | meaningful);
+        long shifted = xor >>> (trail * 8);
+        for (int i = meaningful - 1; i >= 0; i--) data[length++] = (byte) (shifted >>> (i * 8));
+    }
+
+    private long readXor(int[] pos) {
+        int header = data[pos[0]++] & 0xFF;
+        if (header == 0) return 0;
+        int lead = header >>> 4;
+        int meaningful = header & 0x0F;
+        long value = 0;
+        for (int i = 0; i < meaningful; i++) value = value << 8 | (data[pos[0]++] & 0xFF);
+        return value << ((8 - lead - meaningful) * 8);
+    }
+}
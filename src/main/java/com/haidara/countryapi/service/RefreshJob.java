@@ -0,0 +1,94 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** One asynchronous run of the refresh pipeline, shared by every request that coalesced onto it. */
+public class RefreshJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, UNCHANGED, FAILED }
+
+    private final String id;
+    private final String trigger;
+    private final Instant requestedAt = Instant.now();
+    private final RefreshTimings timings = new RefreshTimings();
+    private final AtomicInteger coalescedRequests = new AtomicInteger();
+    private final CompletableFuture<RefreshJob> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    RefreshJob(String id, String trigger) {
+        this.id = id;
+        this.trigger = trigger;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void finish(boolean changed) {
+        finishedAt = Instant.now();
+        status = changed ? Status.SUCCEEDED : Status.UNCHANGED;
+        completion.complete(this);
+    }
+
+    void fail(String message) {
+        finishedAt = Instant.now();
+        error = message;
+        status = Status.FAILED;
+        completion.complete(this);
+    }
+
+    int coalesce() {
+        return coalescedRequests.incrementAndGet();
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    @JsonIgnore
+    public CompletableFuture<RefreshJob> getCompletion() { return completion; }
+
+    @JsonIgnore
+    RefreshTimings getTimings() { return timings; }
+
+    // --- Getters ---
+
+    @JsonProperty("job_id")
+    public String getId() { return id; }
+
+    public Status getStatus() { return status; }
+
+    public String getTrigger() { return trigger; }
+
+    /** Stage in progress while running, null otherwise. */
+    public String getStage() { return status == Status.RUNNING ? timings.getCurrentStage() : null; }
+
+    @JsonProperty("requested_at")
+    public Instant getRequestedAt() { return requestedAt; }
+
+    @JsonProperty("started_at")
+    public Instant getStartedAt() { return startedAt; }
+
+    @JsonProperty("finished_at")
+    public Instant getFinishedAt() { return finishedAt; }
+
+    @JsonProperty("coalesced_requests")
+    public int getCoalescedRequests() { return coalescedRequests.get(); }
+
+    @JsonProperty("stage_timings_ms")
+    public Map<String, Long> getStageTimings() { return timings.toMillis(); }
+
+    public String getError() { return error; }
+}
@@ -0,0 +1,131 @@
+package com.haidara.countryapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs refreshes off the request thread. While a job is queued or running,
+ * further requests coalesce onto it instead of starting another upstream fetch.
+ * On shutdown it stops taking jobs and lets the running one finish while JPA and
+ * the snapshot listeners are still available.
+ */
+@Service
+public class RefreshJobService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshJobService.class);
+
+    private final CountryService countryService;
+    private final Executor refreshExecutor;
+    private final Map<String, RefreshJob> recentJobs;
+    private final Duration shutdownTimeout;
+
+    private RefreshJob inFlight;
+    private boolean running;
+
+    public RefreshJobService(CountryService countryService,
+                             @Qualifier("refreshExecutor") Executor refreshExecutor,
+                             @Value("${app.refresh.job-history:50}") int jobHistory,
+                             @Value("${app.refresh.shutdown-timeout:PT30S}") Duration shutdownTimeout) {
+        this.countryService = countryService;
+        this.refreshExecutor = refreshExecutor;
+        this.shutdownTimeout = shutdownTimeout;
+        this.recentJobs = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RefreshJob> eldest) {
+                return size() > jobHistory;
+            }
+        };
+    }
+
+    /** Start a refresh, or join the one already in flight. Rejected once shutdown has begun. */
+    public synchronized Submission submit(String trigger) {
+        if (!running) throw new RejectedExecutionException("Refreshes are not accepted while shutting down");
+        if (inFlight != null && !inFlight.isDone()) {
+            inFlight.coalesce();
+            return new Submission(inFlight, true);
+        }
+
+        RefreshJob job = new RefreshJob(UUID.randomUUID().toString(), trigger);
+        recentJobs.put(job.getId(), job);
+        inFlight = job;
+        try {
+            refreshExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            job.fail("Refresh rejected: " + e.getMessage());
+            throw e;
+        }
+        return new Submission(job, false);
+    }
+
+    public synchronized Optional<RefreshJob> getJob(String id) {
+        return Optional.ofNullable(recentJobs.get(id));
+    }
+
+    private void run(RefreshJob job) {
+        job.start();
+        try {
+            job.finish(countryService.refreshCountries(job.getTimings()));
+        } catch (Exception e) {
+            logger.warn("Refresh job {} failed: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        } catch (Throwable t) {
+            // Still complete the job, or every later submission would coalesce onto it forever
+            logger.error("Refresh job {} failed", job.getId(), t);
+            job.fail(t.toString());
+            throw t;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+    }
+
+    /** Runs after the web server has stopped (phase 0) and before any bean is destroyed. */
+    @Override
+    public void stop() {
+        RefreshJob job;
+        synchronized (this) {
+            running = false;
+            job = inFlight;
+        }
+        if (job == null || job.isDone()) return;
+        logger.info("Waiting up to {} for refresh job {} to finish", shutdownTimeout, job.getId());
+        try {
+            job.getCompletion().get(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Refresh job {} still running at shutdown", job.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Failures are recorded on the job itself
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public record Submission(RefreshJob job, boolean coalesced) {}
+}
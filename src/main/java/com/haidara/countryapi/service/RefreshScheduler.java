@@ -0,0 +1,27 @@
+package com.haidara.countryapi.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Periodic refresh, enabled with {@code app.refresh.schedule.enabled=true}; skipped on cluster followers. */
+@Component
+@ConditionalOnProperty(name = "app.refresh.schedule.enabled", havingValue = "true")
+public class RefreshScheduler {
+
+    private final RefreshJobService refreshJobService;
+    private final ClusterNode clusterNode;
+
+    public RefreshScheduler(RefreshJobService refreshJobService, ClusterNode clusterNode) {
+        this.refreshJobService = refreshJobService;
+        this.clusterNode = clusterNode;
+    }
+
+    @Scheduled(initialDelayString = "${app.refresh.schedule.initial-delay:PT1M}",
+            fixedDelayString = "${app.refresh.schedule.interval:PT1H}")
+    public void refresh() {
+        // In cluster mode only the leader fetches; followers receive its snapshots
+        if (clusterNode.isFollower()) return;
+        refreshJobService.submit("schedule");
+    }
+}
@@ -0,0 +1,45 @@
+package com.haidara.countryapi.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Wall-clock duration of each refresh stage, recorded from whichever thread ran it. */
+public class RefreshTimings {
+
+    private final Map<String, Long> nanos = new LinkedHashMap<>();
+    private volatile String currentStage;
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public synchronized void record(String stage, long elapsedNanos) {
+        nanos.merge(stage, elapsedNanos, Long::sum);
+    }
+
+    /** Mark the stage the refresh is currently in, for progress reporting. */
+    public void enter(String stage) {
+        this.currentStage = stage;
+    }
+
+    public String getCurrentStage() {
+        return currentStage;
+    }
+
+    public synchronized Map<String, Long> toNanos() {
+        return new LinkedHashMap<>(nanos);
+    }
+
+    public synchronized Map<String, Long> toMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        nanos.forEach((stage, n) -> millis.put(stage, TimeUnit.NANOSECONDS.toMillis(n)));
+        return millis;
+    }
+}
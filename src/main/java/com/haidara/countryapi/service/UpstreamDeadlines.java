@@ -0,0 +1,120 @@
+package com.haidara.countryapi.service;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Wall-clock deadlines for upstream attempts. Socket timeouts only bound each read, so a payload that
+ * keeps trickling in could hold an attempt forever; instead, every HTTP request created while an attempt
+ * runs on the current thread is aborted once that attempt's deadline passes.
+ */
+@Component
+public class UpstreamDeadlines implements DisposableBean {
+
+    private final ThreadLocal<Attempt> current = new ThreadLocal<>();
+    /** Nanoseconds each thread has spent in {@link #excluding} blocks, for callers keeping their own clocks */
+    private final ThreadLocal<long[]> excluded = ThreadLocal.withInitial(() -> new long[1]);
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "upstream-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Run {@code attempt}, aborting its requests after {@code timeout}; an aborted attempt fails as an I/O error. */
+    public <T> T within(Duration timeout, Supplier<T> attempt) {
+        Attempt previous = current.get();
+        Attempt running = new Attempt(System.nanoTime() + timeout.toNanos());
+        current.set(running);
+        try {
+            return attempt.get();
+        } catch (RuntimeException e) {
+            if (running.expired) throw new ResourceAccessException("Upstream attempt exceeded its " + timeout + " deadline");
+            throw e;
+        } finally {
+            running.finish();
+            if (previous != null) current.set(previous);
+            else current.remove();
+        }
+    }
+
+    /**
+     * Run {@code wait}, which blocks on something other than the current attempt's upstream (such as
+     * another upstream's result), with the attempt's clock stopped: its deadline moves out by the time spent.
+     */
+    public <T> T excluding(Supplier<T> wait) {
+        Attempt attempt = current.get();
+        long start = System.nanoTime();
+        if (attempt != null) attempt.pause();
+        try {
+            return wait.get();
+        } finally {
+            long spent = System.nanoTime() - start;
+            excluded.get()[0] += spent;
+            if (attempt != null) attempt.resume(spent);
+        }
+    }
+
+    /** Total time the current thread has spent in {@link #excluding}; compare two readings for an interval. */
+    public long excludedNanos() {
+        return excluded.get()[0];
+    }
+
+    /** Called for every upstream request; outside {@link #within} it is left alone. */
+    public void register(Cancellable request) {
+        Attempt attempt = current.get();
+        if (attempt != null) attempt.watch(request);
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    private final class Attempt {
+        private final List<Cancellable> requests = new ArrayList<>(2);
+        private final List<ScheduledFuture<?>> watches = new ArrayList<>(2);
+        private long deadlineNanos;
+        private volatile boolean expired;
+
+        Attempt(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        synchronized void watch(Cancellable request) {
+            requests.add(request);
+            schedule(request);
+        }
+
+        synchronized void pause() {
+            finish();
+        }
+
+        synchronized void resume(long pausedNanos) {
+            deadlineNanos += pausedNanos;
+            if (!expired) for (Cancellable request : requests) schedule(request);
+        }
+
+        synchronized void finish() {
+            for (ScheduledFuture<?> watch : watches) watch.cancel(false);
+            watches.clear();
+        }
+
+        private void schedule(Cancellable request) {
+            watches.add(timer.schedule(() -> {
+                expired = true;
+                request.cancel();
+            }, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS));
+        }
+    }
+}
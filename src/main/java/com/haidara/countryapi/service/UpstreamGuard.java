@@ -0,0 +1,177 @@
+package com.haidara.countryapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Wraps each upstream call in a per-upstream {@link CircuitBreaker} and retries transient failures
+ * (I/O errors, 5xx, 429) with exponential backoff and full jitter. Retries draw from a budget that
+ * every first attempt tops up by {@code retry-budget-ratio}, so a persistently failing upstream
+ * costs at most that fraction of extra calls. Each attempt is aborted after {@code attempt-timeout} of
+ * wall-clock time (see {@link UpstreamDeadlines}), or when the overall {@code deadline} passes, whichever is
+ * first; no retry starts once {@code deadline} would be exceeded. Malformed payloads are not retried.
+ */
+@Component
+public class UpstreamGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    private final CountryMetrics metrics;
+    private final UpstreamDeadlines deadlines;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long deadlineMillis;
+    private final long attemptTimeoutMillis;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final double budgetRatio;
+    private final double budgetMax;
+    private double budget;
+
+    public UpstreamGuard(CountryMetrics metrics, UpstreamDeadlines deadlines,
+                         @Value("${app.resilience.max-attempts:3}") int maxAttempts,
+                         @Value("${app.resilience.backoff-base:PT0.2S}") Duration backoffBase,
+                         @Value("${app.resilience.backoff-max:PT2S}") Duration backoffMax,
+                         @Value("${app.resilience.deadline:PT30S}") Duration deadline,
+                         @Value("${app.resilience.attempt-timeout:PT20S}") Duration attemptTimeout,
+                         @Value("${app.resilience.failure-threshold:3}") int failureThreshold,
+                         @Value("${app.resilience.open-duration:PT30S}") Duration openDuration,
+                         @Value("${app.resilience.retry-budget-ratio:0.2}") double budgetRatio,
+                         @Value("${app.resilience.retry-budget-max:5}") double budgetMax) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("app.resilience.max-attempts must be at least 1");
+        this.metrics = metrics;
+        this.deadlines = deadlines;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBase.toMillis();
+        this.backoffMaxMillis = backoffMax.toMillis();
+        this.deadlineMillis = deadline.toMillis();
+        this.attemptTimeoutMillis = attemptTimeout.toMillis();
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.budgetRatio = budgetRatio;
+        this.budgetMax = budgetMax;
+        this.budget = budgetMax;
+    }
+
+    /** Run {@code attempt} against {@code upstream}, retrying transient failures within the budget. */
+    public <T> T call(String upstream, Supplier<T> attempt) {
+        CircuitBreaker breaker = breaker(upstream);
+        long start = System.currentTimeMillis();
+        long excludedAtStart = deadlines.excludedNanos();
+        deposit();
+        for (int n = 1; ; n++) {
+            try {
+                breaker.acquire();
+            } catch (CircuitBreaker.OpenException e) {
+                metrics.recordUpstreamCall(upstream, "rejected");
+                throw e;
+            }
+            RuntimeException failure;
+            try {
+                long remaining = deadlineMillis - elapsedMillis(start, excludedAtStart);
+                T result = deadlines.within(Duration.ofMillis(Math.max(0, Math.min(attemptTimeoutMillis, remaining))),
+                        attempt);
+                breaker.onSuccess();
+                metrics.recordUpstreamCall(upstream, "success");
+                return result;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    breaker.onIgnored();
+                    throw e;
+                }
+                breaker.onFailure();
+                metrics.recordUpstreamCall(upstream, "failure");
+                failure = e;
+            }
+
+            long backoff = backoff(n);
+            String reason = null;
+            if (n >= maxAttempts) reason = "attempts exhausted";
+            else if (elapsedMillis(start, excludedAtStart) + backoff > deadlineMillis) reason = "deadline reached";
+            else if (breaker.state() == CircuitBreaker.State.OPEN) reason = "circuit opened";
+            else if (!withdraw()) reason = "retry budget exhausted";
+            if (reason != null) {
+                logger.warn("{} upstream failed after {} attempt(s), {}: {}", upstream, n, reason, failure.getMessage());
+                throw failure;
+            }
+            logger.info("{} upstream attempt {} failed ({}), retrying in {} ms", upstream, n, failure.getMessage(), backoff);
+            metrics.recordUpstreamRetry(upstream);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Run {@code wait} from inside an attempt when it blocks on something other than that attempt's
+     * upstream. The time is excluded from the attempt and overall deadlines, so another upstream being
+     * slow cannot time this one out, spend its retries or trip its breaker.
+     */
+    public <T> T excludingWait(Supplier<T> wait) {
+        return deadlines.excluding(wait);
+    }
+
+    /** Wall-clock time since {@code start}, less time spent in {@link #excludingWait} on this thread */
+    private long elapsedMillis(long start, long excludedAtStart) {
+        long excluded = (deadlines.excludedNanos() - excludedAtStart) / 1_000_000;
+        return System.currentTimeMillis() - start - excluded;
+    }
+
+    CircuitBreaker.State state(String upstream) {
+        return breaker(upstream).state();
+    }
+
+    private CircuitBreaker breaker(String upstream) {
+        return breakers.computeIfAbsent(upstream, name -> {
+            CircuitBreaker breaker = new CircuitBreaker(name, failureThreshold, openDuration);
+            metrics.registerCircuit(name, () -> breaker.state().ordinal());
+            return breaker;
+        });
+    }
+
+    /**
+     * Connection and read failures, 5xx and 429 are worth another try; anything else is not, including
+     * a malformed payload, which RestTemplate reports as an I/O error too.
+     */
+    static boolean isTransient(RuntimeException e) {
+        if (e instanceof ResourceAccessException) return !(e.getCause() instanceof JsonProcessingException);
+        if (e instanceof HttpStatusCodeException status) {
+            return status.getStatusCode().is5xxServerError()
+                    || status.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return false;
+    }
+
+    /** Full jitter: uniformly random up to the capped exponential delay for attempt {@code n}. */
+    private long backoff(int n) {
+        long cap = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(n - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(budgetMax, budget + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) return false;
+        budget -= 1;
+        return true;
+    }
+}
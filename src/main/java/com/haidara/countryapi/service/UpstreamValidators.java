@@ -0,0 +1,55 @@
+package com.haidara.countryapi.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Remembers the ETag / Last-Modified of each upstream payload so refreshes can send conditional GETs. */
+@Component
+public class UpstreamValidators {
+
+    public record Validator(String etag, String lastModified) {
+
+        /** Validators carried by a response, or null when it has none. */
+        static Validator from(HttpHeaders headers) {
+            String etag = headers.getETag();
+            String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+            return (etag == null && lastModified == null) ? null : new Validator(etag, lastModified);
+        }
+    }
+
+    private final Map<String, Validator> byUrl = new ConcurrentHashMap<>();
+
+    public void applyTo(String url, HttpHeaders headers) {
+        Validator validator = byUrl.get(url);
+        if (validator == null) return;
+        if (validator.etag() != null) headers.setIfNoneMatch(validator.etag());
+        if (validator.lastModified() != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, validator.lastModified());
+    }
+
+    public boolean has(String url) {
+        return byUrl.containsKey(url);
+    }
+
+    public void remember(String url, Validator validator) {
+        if (validator == null) byUrl.remove(url);
+        else byUrl.put(url, validator);
+    }
+
+    /** Current validators by URL, for persisting alongside the data they describe. */
+    public Map<String, Validator> snapshot() {
+        return Map.copyOf(byUrl);
+    }
+
+    public void restore(Map<String, Validator> validators) {
+        byUrl.clear();
+        byUrl.putAll(validators);
+    }
+
+    /** Forget everything, forcing the next refresh to download full payloads. */
+    public void clear() {
+        byUrl.clear();
+    }
+}
@@ -0,0 +1,104 @@
+package com.haidara.countryapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        CircuitBreaker breaker = new CircuitBreaker("countries", 3, Duration.ofHours(1));
+        fail(breaker);
+        fail(breaker);
+        succeed(breaker); // resets the run
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire)
+                .isInstanceOf(CircuitBreaker.OpenException.class)
+                .hasMessageStartingWith("Circuit open for countries upstream, next attempt in ");
+    }
+
+    @Test
+    void halfOpenAdmitsOneTrialThatClosesOnSuccess() {
+        CircuitBreaker breaker = tripped(Duration.ZERO);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.acquire();
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitBreaker.OpenException.class);
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.acquire();
+        breaker.acquire();
+        // The failure run starts over: one failure does not reopen
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialReopensForAnotherPeriod() throws InterruptedException {
+        CircuitBreaker breaker = tripped(Duration.ofMillis(200));
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitBreaker.OpenException.class);
+
+        Thread.sleep(250);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire();
+        breaker.onFailure(); // a single failed trial is enough
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(CircuitBreaker.OpenException.class);
+
+        Thread.sleep(250);
+        breaker.acquire();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ignoredTrialFreesTheSlot() {
+        CircuitBreaker breaker = tripped(Duration.ZERO);
+        breaker.acquire();
+        breaker.onIgnored();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ignoredCallsLeaveAClosedBreakerAlone() {
+        CircuitBreaker breaker = new CircuitBreaker("rates", 2, Duration.ofHours(1));
+        fail(breaker);
+        breaker.acquire();
+        breaker.onIgnored();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private static CircuitBreaker tripped(Duration openDuration) {
+        CircuitBreaker breaker = new CircuitBreaker("rates", 2, openDuration);
+        fail(breaker);
+        fail(breaker);
+        return breaker;
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        breaker.acquire();
+        breaker.onFailure();
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        breaker.acquire();
+        breaker.onSuccess();
+    }
+}
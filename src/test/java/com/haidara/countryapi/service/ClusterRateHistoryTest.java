@@ -0,0 +1,124 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.CountryApiApplication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes sharing a {@link FileClusterStore} directory: the follower applies the leader's
+ * publishes through {@link ClusterSync} and must end up with the same rate history.
+ */
+class ClusterRateHistoryTest {
+
+    private static final String COUNTRIES = """
+            [{"name":{"common":"France"},"capital":["Paris"],"region":"Europe","population":68000000,
+              "flags":{"png":"https://flags.example/fr.png"},"currencies":{"EUR":{}}},
+             {"name":{"common":"Japan"},"capital":["Tokyo"],"region":"Asia","population":125000000,
+              "flags":{"png":"https://flags.example/jp.png"},"currencies":{"JPY":{}}}]
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger rateCalls = new AtomicInteger();
+    private HttpServer upstream;
+    private ConfigurableApplicationContext leader;
+    private ConfigurableApplicationContext follower;
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/countries", exchange -> respond(exchange, COUNTRIES));
+        // Every call reports newer rates, a day after the previous ones
+        upstream.createContext("/rates", exchange -> {
+            int call = rateCalls.incrementAndGet();
+            respond(exchange, """
+                    {"result":"success","time_last_update_unix":%d,"rates":{"USD":1.0,"EUR":%s,"JPY":%s}}
+                    """.formatted(1_760_000_000L + call * 86_400L, 0.9 + call / 100.0, 150.0 + call));
+        });
+        upstream.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (follower != null) follower.close();
+        if (leader != null) leader.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void followerRecordsTheLeadersRates() {
+        leader = startNode("leader");
+        leader.getBean(ClusterSync.class).sync();
+        assertThat(leader.getBean(ClusterNode.class).isFollower()).isFalse();
+
+        follower = startNode("follower");
+        follower.getBean(ClusterSync.class).sync();
+        assertThat(follower.getBean(ClusterNode.class).isFollower()).isTrue();
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(leader.getBean(CountryService.class).refreshCountries()).isTrue();
+            follower.getBean(ClusterSync.class).sync();
+        }
+
+        assertThat(follower.getBean(ClusterNode.class).getGeneration())
+                .isEqualTo(leader.getBean(ClusterNode.class).getGeneration());
+        for (String code : List.of("EUR", "JPY")) {
+            List<RateHistory.Point> expected = history(leader, code);
+            assertThat(expected).hasSize(2);
+            assertThat(history(follower, code)).isEqualTo(expected);
+        }
+    }
+
+    private static List<RateHistory.Point> history(ConfigurableApplicationContext node, String code) {
+        return node.getBean(RateHistory.class).range(code, Instant.EPOCH, Instant.now(), null);
+    }
+
+    private ConfigurableApplicationContext startNode(String nodeId) {
+        String base = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        return new SpringApplicationBuilder(CountryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // Arguments rather than builder properties, which application.yml would override
+                .run(
+                        "--app.external.countries-api=" + base + "/countries",
+                        "--app.external.exchange-api=" + base + "/rates",
+                        "--app.cluster.enabled=true",
+                        "--app.cluster.node-id=" + nodeId,
+                        "--app.cluster.dir=" + dir.resolve("cluster"),
+                        // Synced by hand below rather than by the schedule
+                        "--app.cluster.poll-interval=PT1H",
+                        "--app.snapshot.path=" + dir.resolve(nodeId + ".snapshot"),
+                        "--app.rates.history.path=" + dir.resolve(nodeId + "-rates.log"),
+                        "--spring.datasource.url=jdbc:h2:mem:cluster-" + nodeId,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false");
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
+
@@ -0,0 +1,43 @@
+package com.haidara.countryapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCodingsTest {
+
+    @Test
+    void listedCodingWithPositiveWeightIsAccepted() {
+        assertThat(ContentCodings.accepts("gzip", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("deflate, gzip;q=0.5", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("br;q=1.0, GZIP ; Q=0.001", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("x-gzip", "gzip")).isTrue();
+    }
+
+    @Test
+    void zeroWeightRefusesTheCoding() {
+        assertThat(ContentCodings.accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzip;q=0.000, identity", "gzip")).isFalse();
+        // The coding's own entry wins over the wildcard, in either order
+        assertThat(ContentCodings.accepts("*, gzip;q=0", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzip;q=0, *;q=1", "gzip")).isFalse();
+    }
+
+    @Test
+    void wildcardCoversUnlistedCodings() {
+        assertThat(ContentCodings.accepts("*", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("br, *;q=0.1", "gzip")).isTrue();
+        assertThat(ContentCodings.accepts("br, *;q=0", "gzip")).isFalse();
+    }
+
+    @Test
+    void substringsAndMalformedWeightsDoNotCount() {
+        assertThat(ContentCodings.accepts(null, "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("identity", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzipped, notgzip", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzip;q=2", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzip;q=NaN", "gzip")).isFalse();
+        assertThat(ContentCodings.accepts("gzip;q=0.0001", "gzip")).isFalse();
+    }
+}
@@ -0,0 +1,113 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountryCursorTest {
+
+    private static final List<CountrySort> ORDERS = new ArrayList<>(Arrays.asList(CountrySort.values()));
+
+    static {
+        ORDERS.add(null); // name order
+    }
+
+    @Test
+    void roundTripsEveryOrder() {
+        for (CountrySort sort : ORDERS) {
+            for (double gdp : new double[]{0.0, -0.0, -1.5, 2.5e12, Double.NaN, Double.MAX_VALUE}) {
+                CountryCursor cursor = new CountryCursor(sort, gdp, 1_234_567L, "Côte d'Ivoire\nsecond line");
+                CountryCursor decoded = CountryCursor.decode(cursor.encode(), sort);
+
+                assertThat(decoded.sort()).isEqualTo(sort);
+                assertThat(decoded.name()).isEqualTo(cursor.name());
+                if (sort == CountrySort.GDP_ASC || sort == CountrySort.GDP_DESC)
+                    assertThat(Double.doubleToRawLongBits(decoded.gdp())).isEqualTo(Double.doubleToRawLongBits(gdp));
+                else if (sort != null)
+                    assertThat(decoded.population()).isEqualTo(1_234_567L);
+            }
+        }
+        // URL-safe without padding, so it can go into a query string as-is
+        assertThat(new CountryCursor(null, 0, 0, "???>>>").encode()).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void pagesVisitEveryRowOnceInOrder() {
+        CountrySnapshot snapshot = snapshot(new Random(3), 300);
+        for (CountrySort sort : ORDERS) {
+            int[] rows = snapshot.getIndex().view(null, null, sort);
+            for (int pageSize : new int[]{1, 7, 100, 1_000}) {
+                List<Integer> visited = new ArrayList<>();
+                String cursor = null;
+                do {
+                    int from = cursor == null ? 0 : CountryCursor.decode(cursor, sort).startIn(snapshot, rows);
+                    int to = Math.min(rows.length, from + pageSize);
+                    for (int i = from; i < to; i++) visited.add(rows[i]);
+                    cursor = to < rows.length ? CountryCursor.after(snapshot, rows[to - 1], sort).encode() : null;
+                } while (cursor != null);
+
+                assertThat(visited).as("sort %s, page size %d", sort, pageSize)
+                        .containsExactly(Arrays.stream(rows).boxed().toArray(Integer[]::new));
+            }
+        }
+    }
+
+    @Test
+    void resumesAfterTheLastRowWhenItIsRemoved() {
+        CountrySnapshot snapshot = snapshot(new Random(5), 50);
+        for (CountrySort sort : ORDERS) {
+            int[] rows = snapshot.getIndex().view(null, null, sort);
+            CountryCursor cursor = CountryCursor.after(snapshot, rows[9], sort);
+
+            CountrySnapshot smaller = snapshot.without(rows[9], 2);
+            int[] remaining = smaller.getIndex().view(null, null, sort);
+            int start = CountryCursor.decode(cursor.encode(), sort).startIn(smaller, remaining);
+
+            assertThat(smaller.name(remaining[start])).as("sort %s", sort).isEqualTo(snapshot.name(rows[10]));
+        }
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        String gdpCursor = new CountryCursor(CountrySort.GDP_DESC, 1e9, 0, "Nigeria").encode();
+
+        assertThatThrownBy(() -> CountryCursor.decode("not base64!", CountrySort.GDP_DESC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> CountryCursor.decode(raw("gdp_desc\nNigeria"), CountrySort.GDP_DESC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> CountryCursor.decode(raw("gdp_desc\nnot-hex\nNigeria"), CountrySort.GDP_DESC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> CountryCursor.decode(raw("population_asc\n1.5\nNigeria"), CountrySort.POPULATION_ASC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> CountryCursor.decode(gdpCursor, CountrySort.GDP_ASC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor was issued for a different sort");
+        assertThatThrownBy(() -> CountryCursor.decode(gdpCursor, null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor was issued for a different sort");
+        assertThatThrownBy(() -> CountryCursor.decode(raw("name\n\nNigeria"), CountrySort.POPULATION_DESC))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor was issued for a different sort");
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Few distinct keys so ties fall back to the name, plus missing GDPs and populations. */
+    private static CountrySnapshot snapshot(Random random, int count) {
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Long population = random.nextInt(10) == 0 ? null : (long) random.nextInt(5) * 1_000;
+            Double gdp = random.nextInt(10) == 0 ? null : random.nextInt(5) * 1e9;
+            countries.add(new Country("Country " + i, null, null, population, null, null, gdp, null));
+        }
+        return CountrySnapshot.build(1, countries);
+    }
+}
@@ -0,0 +1,101 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountryNameIndexTest {
+
+    /** A small alphabet so generated names share long prefixes and the walk reuses and prunes rows. */
+    private static final String ALPHABET = "abcAé";
+
+    @Test
+    void fuzzySearchMatchesBruteForcePrefixDistance() {
+        Random random = new Random(42);
+        for (int round = 0; round < 30; round++) {
+            CountrySnapshot snapshot = snapshot(random, 1 + random.nextInt(200));
+            CountryNameIndex index = snapshot.getIndex().getNames();
+            for (int i = 0; i < 50; i++) {
+                String query = randomName(random, 0, 5);
+                for (int maxEdits = 0; maxEdits <= 2; maxEdits++) {
+                    List<CountryNameIndex.Match> expected = bruteForce(snapshot, query, maxEdits);
+                    assertThat(index.search(query, Integer.MAX_VALUE, maxEdits))
+                            .as("query '%s' with %d edits", query, maxEdits)
+                            .isEqualTo(expected);
+                    assertThat(index.search(query, 3, maxEdits))
+                            .isEqualTo(expected.subList(0, Math.min(3, expected.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void findIgnoresCaseAndAccentsAndPrefersTheCaseOnlyMatch() {
+        CountrySnapshot snapshot = CountrySnapshot.build(1, List.of(
+                country("Cote d'Ivoire"), country("Côte d'Ivoire"), country("Åland Islands")));
+        CountryNameIndex index = snapshot.getIndex().getNames();
+
+        assertThat(snapshot.name(index.find("côte d'ivoire"))).isEqualTo("Côte d'Ivoire");
+        assertThat(snapshot.name(index.find("COTE D'IVOIRE"))).isEqualTo("Cote d'Ivoire");
+        assertThat(snapshot.name(index.find("aland islands"))).isEqualTo("Åland Islands");
+        assertThat(index.find("Atlantis")).isEqualTo(CountrySnapshot.NONE);
+        assertThat(index.find(null)).isEqualTo(CountrySnapshot.NONE);
+    }
+
+    /** Every row whose folded name has a prefix within {@code maxEdits} of the query, by distance then key. */
+    private static List<CountryNameIndex.Match> bruteForce(CountrySnapshot snapshot, String query, int maxEdits) {
+        String q = CountryNameIndex.normalize(query);
+        List<CountryNameIndex.Match> matches = new ArrayList<>();
+        for (int row = 0; row < snapshot.size(); row++) {
+            int distance = prefixDistance(q, CountryNameIndex.normalize(snapshot.name(row)));
+            if (distance <= maxEdits) matches.add(new CountryNameIndex.Match(row, distance));
+        }
+        matches.sort(Comparator.comparingInt(CountryNameIndex.Match::distance)
+                .thenComparing(m -> CountryNameIndex.normalize(snapshot.name(m.row())))
+                .thenComparingInt(CountryNameIndex.Match::row));
+        return matches;
+    }
+
+    /** Smallest Levenshtein distance between {@code q} and any prefix of {@code key}. */
+    private static int prefixDistance(String q, String key) {
+        int best = Integer.MAX_VALUE;
+        for (int end = 0; end <= key.length(); end++) best = Math.min(best, levenshtein(q, key.substring(0, end)));
+        return best;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static CountrySnapshot snapshot(Random random, int count) {
+        CountrySnapshot.Builder builder = new CountrySnapshot.Builder();
+        for (int i = 0; i < count; i++) builder.add(country(randomName(random, 1, 7)));
+        return builder.build(1);
+    }
+
+    private static String randomName(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return name.toString();
+    }
+
+    private static Country country(String name) {
+        return new Country(name, null, null, null, null, null, null, null);
+    }
+}
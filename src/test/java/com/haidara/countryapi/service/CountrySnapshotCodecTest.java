@@ -0,0 +1,117 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountrySnapshotCodecTest {
+
+    @Test
+    void roundTripsRowsRatesAndValidators() throws IOException {
+        Country full = new Country("Côte d'Ivoire", "Yamoussoukro", "Africa", 26_378_275L, "XOF",
+                604.5, 43_637_000.25, "https://flagcdn.com/ci.png");
+        full.setLastRefreshedAt(LocalDateTime.of(2025, 10, 22, 18, 0, 1, 123_456_789));
+        Country negative = new Country("Negativia", "", "Nowhere", 0L, "NEG", -1.5, -0.0, null);
+        negative.setLastRefreshedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59));
+        Country blank = new Country("Atlantis", null, null, null, null, null, null, null);
+        Country same = new Country("Twin", "Twin City", "Africa", 26_378_275L, "XOF",
+                604.5, 43_637_000.25, "https://flagcdn.com/ci.png");
+        CountrySnapshot snapshot = CountrySnapshot.build(7, List.of(full, negative, blank, same));
+
+        Map<String, Double> rates = new HashMap<>(Map.of("XOF", 604.5, "NEG", -1.5, "ONE", 1.0, "ALSO", 1.0));
+        rates.put("GONE", null);
+        Map<String, UpstreamValidators.Validator> validators = Map.of(
+                "https://countries.example", new UpstreamValidators.Validator("\"v1\"", null),
+                "https://rates.example", new UpstreamValidators.Validator(null, "Wed, 22 Oct 2025 18:00:00 GMT"));
+        Instant observedAt = Instant.ofEpochSecond(1_761_156_000L);
+
+        CountrySnapshotCodec.Persisted decoded = roundTrip(
+                new CountrySnapshotCodec.Persisted(snapshot, rates, observedAt, validators));
+
+        assertSameRows(decoded.snapshot(), snapshot);
+        assertThat(decoded.snapshot().getVersion()).isZero();
+        assertThat(decoded.rates()).isEqualTo(rates);
+        assertThat(decoded.ratesObservedAt()).isEqualTo(observedAt);
+        assertThat(decoded.validators()).isEqualTo(validators);
+    }
+
+    @Test
+    void roundTripsAnEmptyState() throws IOException {
+        CountrySnapshotCodec.Persisted decoded = roundTrip(
+                new CountrySnapshotCodec.Persisted(CountrySnapshot.empty(), null, null, null));
+
+        assertThat(decoded.snapshot().size()).isZero();
+        assertThat(decoded.rates()).isEmpty();
+        assertThat(decoded.ratesObservedAt()).isNull();
+        assertThat(decoded.validators()).isEmpty();
+    }
+
+    @Test
+    void readsFormatOneWithoutTheRatesTime() throws IOException {
+        CountrySnapshot snapshot = CountrySnapshot.build(1, List.of(
+                new Country("France", "Paris", "Europe", 68_000_000L, "EUR", 0.9, 1e9, null)));
+        byte[] current = encode(new CountrySnapshotCodec.Persisted(snapshot, Map.of("EUR", 0.9), null, Map.of()));
+        // Format 1 is format 2 without the rates-time flag, which sits just before the empty validator count
+        byte[] formatOne = new byte[current.length - 1];
+        System.arraycopy(current, 0, formatOne, 0, current.length - 5);
+        System.arraycopy(current, current.length - 4, formatOne, current.length - 5, 4);
+        ByteBuffer.wrap(formatOne).putInt(4, 1);
+
+        CountrySnapshotCodec.Persisted decoded = CountrySnapshotCodec.read(new ByteArrayInputStream(formatOne));
+        assertSameRows(decoded.snapshot(), snapshot);
+        assertThat(decoded.rates()).isEqualTo(Map.of("EUR", 0.9));
+        assertThat(decoded.ratesObservedAt()).isNull();
+    }
+
+    @Test
+    void rejectsForeignAndFutureFiles() throws IOException {
+        byte[] bytes = encode(new CountrySnapshotCodec.Persisted(CountrySnapshot.empty(), Map.of(), null, Map.of()));
+
+        byte[] foreign = bytes.clone();
+        foreign[0] ^= 0x7F;
+        assertThatThrownBy(() -> CountrySnapshotCodec.read(new ByteArrayInputStream(foreign)))
+                .isInstanceOf(IOException.class).hasMessage("Not a country snapshot file");
+
+        byte[] future = bytes.clone();
+        ByteBuffer.wrap(future).putInt(4, 99);
+        assertThatThrownBy(() -> CountrySnapshotCodec.read(new ByteArrayInputStream(future)))
+                .isInstanceOf(IOException.class).hasMessage("Unsupported snapshot format 99");
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+        assertThatThrownBy(() -> CountrySnapshotCodec.read(new ByteArrayInputStream(truncated)))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static void assertSameRows(CountrySnapshot actual, CountrySnapshot expected) {
+        assertThat(actual.size()).isEqualTo(expected.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertThat(actual.name(row)).isEqualTo(expected.name(row));
+            // Doubles compare with Double.compare, so NaN and -0.0 must come back exactly
+            assertThat(CountrySnapshotDiff.sameValues(actual, row, expected, row)).as(expected.name(row)).isTrue();
+            assertThat(actual.refreshedAt(row)).isEqualTo(expected.refreshedAt(row));
+        }
+    }
+
+    private static CountrySnapshotCodec.Persisted roundTrip(CountrySnapshotCodec.Persisted state) throws IOException {
+        return CountrySnapshotCodec.read(new ByteArrayInputStream(encode(state)));
+    }
+
+    private static byte[] encode(CountrySnapshotCodec.Persisted state) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CountrySnapshotCodec.write(out, state);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,137 @@
+package com.haidara.countryapi.service;
+
+import com.haidara.countryapi.model.Country;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountrySnapshotDiffTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 10, 22, 18, 0);
+
+    @Test
+    void matchesAReferenceDiffByName() {
+        Random random = new Random(13);
+        for (int round = 0; round < 200; round++) {
+            Map<String, Country> before = new LinkedHashMap<>();
+            int count = random.nextInt(60);
+            for (int i = 0; i < count; i++) before.put("C" + random.nextInt(80), country(random, before.size()));
+
+            Map<String, Country> after = new LinkedHashMap<>();
+            Set<String> inserted = new HashSet<>();
+            Set<String> updated = new HashSet<>();
+            Set<String> removed = new HashSet<>();
+            for (Map.Entry<String, Country> entry : before.entrySet()) {
+                switch (random.nextInt(4)) {
+                    case 0 -> removed.add(entry.getKey());
+                    case 1 -> {
+                        after.put(entry.getKey(), changed(random, entry.getValue()));
+                        updated.add(entry.getKey());
+                    }
+                    // Refresh time moves on; not a change on its own
+                    case 2 -> after.put(entry.getKey(), copy(entry.getValue(), T0.plusHours(1)));
+                    default -> after.put(entry.getKey(), entry.getValue());
+                }
+            }
+            int additions = random.nextInt(20);
+            for (int i = 0; i < additions; i++) {
+                String name = "N" + random.nextInt(40);
+                if (after.putIfAbsent(name, country(random, i)) == null) inserted.add(name);
+            }
+
+            CountrySnapshot previous = snapshot(before);
+            CountrySnapshot next = snapshot(after);
+            CountrySnapshotDiff diff = CountrySnapshotDiff.between(previous, next);
+
+            assertThat(names(next, diff.getInserted())).isEqualTo(inserted);
+            assertThat(names(next, diff.getUpdated())).isEqualTo(updated);
+            assertThat(Set.of(diff.getRemoved())).isEqualTo(removed);
+            assertThat(diff.changeCount()).isEqualTo(inserted.size() + updated.size() + removed.size());
+            // Rows come out in the new snapshot's (name) order
+            assertThat(diff.getInserted()).isSorted();
+            assertThat(diff.getUpdated()).isSorted();
+            assertThat(diff.getRemoved()).isSorted();
+        }
+    }
+
+    @Test
+    void emptyEdges() {
+        CountrySnapshot some = snapshot(Map.of("France", country(new Random(1), 0), "Japan", country(new Random(2), 1)));
+        CountrySnapshot empty = CountrySnapshot.empty();
+
+        assertThat(CountrySnapshotDiff.between(empty, empty).isEmpty()).isTrue();
+        assertThat(CountrySnapshotDiff.between(some, some).isEmpty()).isTrue();
+        assertThat(CountrySnapshotDiff.between(empty, some).getInserted()).containsExactly(0, 1);
+        assertThat(CountrySnapshotDiff.between(some, empty).getRemoved()).containsExactly("France", "Japan");
+    }
+
+    @Test
+    void missingValuesCompareEqual() {
+        Country blank = new Country("Atlantis", null, null, null, null, null, null, null);
+        CountrySnapshot a = CountrySnapshot.build(1, List.of(blank));
+        CountrySnapshot b = CountrySnapshot.build(2, List.of(copy(blank, T0)));
+
+        assertThat(CountrySnapshotDiff.between(a, b).isEmpty()).isTrue();
+        assertThat(CountrySnapshotDiff.between(a, snapshot(Map.of("Atlantis",
+                new Country("Atlantis", null, "Oceania", null, null, null, null, null)))).getUpdated())
+                .containsExactly(0);
+    }
+
+    private static Set<String> names(CountrySnapshot snapshot, int[] rows) {
+        return Arrays.stream(rows).mapToObj(snapshot::name).collect(Collectors.toSet());
+    }
+
+    private static CountrySnapshot snapshot(Map<String, Country> countries) {
+        List<Country> rows = new ArrayList<>();
+        countries.forEach((name, c) -> {
+            Country named = copy(c, c.getLastRefreshedAt());
+            named.setName(name);
+            rows.add(named);
+        });
+        return CountrySnapshot.build(1, rows);
+    }
+
+    private static Country country(Random random, int i) {
+        Country c = new Country(null, "Capital " + i, random.nextBoolean() ? "Europe" : "Asia",
+                random.nextInt(5) == 0 ? null : 1_000L + random.nextInt(1_000),
+                random.nextBoolean() ? "EUR" : "JPY",
+                random.nextInt(5) == 0 ? null : 0.5 + random.nextInt(4),
+                random.nextInt(5) == 0 ? null : 1e6 * random.nextInt(10),
+                "https://flags.example/" + i + ".png");
+        c.setLastRefreshedAt(T0);
+        return c;
+    }
+
+    /** A copy differing in exactly one compared field. */
+    private static Country changed(Random random, Country c) {
+        Country d = copy(c, c.getLastRefreshedAt());
+        switch (random.nextInt(7)) {
+            case 0 -> d.setCapital(c.getCapital() + "!");
+            case 1 -> d.setRegion(c.getRegion().equals("Europe") ? "Asia" : "Europe");
+            case 2 -> d.setPopulation(c.getPopulation() == null ? 1L : null);
+            case 3 -> d.setCurrencyCode(c.getCurrencyCode().equals("EUR") ? "JPY" : "EUR");
+            case 4 -> d.setExchangeRate(c.getExchangeRate() == null ? 1.0 : c.getExchangeRate() + 0.25);
+            case 5 -> d.setEstimatedGdp(c.getEstimatedGdp() == null ? Double.valueOf(7) : null);
+            default -> d.setFlagUrl(c.getFlagUrl() + "?v=2");
+        }
+        return d;
+    }
+
+    private static Country copy(Country c, LocalDateTime refreshedAt) {
+        Country d = new Country(c.getName(), c.getCapital(), c.getRegion(), c.getPopulation(), c.getCurrencyCode(),
+                c.getExchangeRate(), c.getEstimatedGdp(), c.getFlagUrl());
+        d.setLastRefreshedAt(refreshedAt);
+        return d;
+    }
+}
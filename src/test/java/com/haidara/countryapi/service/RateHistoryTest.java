@@ -0,0 +1,175 @@
+package com.haidara.countryapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateHistoryTest {
+
+    private static final Instant T0 = Instant.ofEpochSecond(1_760_000_000L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysTheLogOnLoad() {
+        Path log = dir.resolve("rates.log");
+        RateHistory history = open(log);
+        history.record(T0, rates("EUR", 0.9, "JPY", 150.0));
+        history.record(T0.plusSeconds(60), rates("EUR", -0.5, "JPY", 150.0));
+        history.record(T0.plusSeconds(120), rates("EUR", -0.5, "jpy", 151.0));
+        // Not newer than the last record: ignored, and not appended
+        history.record(T0.plusSeconds(120), rates("EUR", 2.0));
+
+        RateHistory reloaded = open(log);
+        for (String code : List.of("EUR", "JPY")) {
+            assertThat(reloaded.range(code, Instant.EPOCH, T0.plusSeconds(600), null))
+                    .isEqualTo(history.range(code, Instant.EPOCH, T0.plusSeconds(600), null))
+                    .hasSize(3);
+        }
+        assertThat(reloaded.range("eur", T0, T0.plusSeconds(600), null))
+                .extracting(RateHistory.Point::last).containsExactly(0.9, -0.5, -0.5);
+    }
+
+    @Test
+    void nullRatesAreSkipped() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("EUR", 0.9);
+        rates.put("XXX", null);
+        Path log = dir.resolve("rates.log");
+        open(log).record(T0, rates);
+
+        RateHistory reloaded = open(log);
+        assertThat(reloaded.hasCurrency("EUR")).isTrue();
+        assertThat(reloaded.hasCurrency("XXX")).isFalse();
+    }
+
+    @Test
+    void stepBucketsSummarizeThePoints() {
+        RateHistory history = new RateHistory(false, dir.resolve("unused.log").toString());
+        Instant hour = Instant.ofEpochSecond(1_759_996_800L); // on an hour boundary
+        double[] values = {3.0, 1.0, 2.0, 5.0};
+        for (int i = 0; i < values.length; i++) history.record(hour.plusSeconds(i * 1_800L), rates("EUR", values[i]));
+
+        assertThat(history.range("EUR", Instant.EPOCH, hour.plusSeconds(86_400), Duration.ofHours(1))).containsExactly(
+                new RateHistory.Point(hour, 3.0, 1.0, 1.0, 3.0, 2.0, 2),
+                new RateHistory.Point(hour.plusSeconds(3_600), 2.0, 5.0, 2.0, 5.0, 3.5, 2));
+        assertThat(Files.exists(dir.resolve("unused.log"))).isFalse();
+    }
+
+    @Test
+    void partialTailIsTruncated() throws IOException {
+        Path log = validLog();
+        long valid = Files.size(log);
+        byte[] record = encode(T0.plusSeconds(300).getEpochSecond(), "EUR", 1.0);
+        Files.write(log, Arrays.copyOf(record, record.length - 3), StandardOpenOption.APPEND);
+
+        assertRecoveredTo(log, valid);
+    }
+
+    @Test
+    void implausibleCountIsTruncated() throws IOException {
+        Path log = validLog();
+        long valid = Files.size(log);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(T0.plusSeconds(300).getEpochSecond());
+            out.writeInt(Integer.MAX_VALUE);
+            out.write(new byte[64]);
+        }
+        Files.write(log, bytes.toByteArray(), StandardOpenOption.APPEND);
+
+        assertRecoveredTo(log, valid);
+    }
+
+    @Test
+    void negativeCountIsTruncated() throws IOException {
+        Path log = validLog();
+        long valid = Files.size(log);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(T0.plusSeconds(300).getEpochSecond());
+            out.writeInt(-1);
+        }
+        Files.write(log, bytes.toByteArray(), StandardOpenOption.APPEND);
+
+        assertRecoveredTo(log, valid);
+    }
+
+    @Test
+    void malformedCurrencyCodeIsTruncated() throws IOException {
+        Path log = validLog();
+        long valid = Files.size(log);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(T0.plusSeconds(300).getEpochSecond());
+            out.writeInt(1);
+            out.writeShort(2);
+            out.write(new byte[]{(byte) 0xFF, 0x41}); // not modified UTF-8
+            out.writeDouble(1.0);
+        }
+        Files.write(log, bytes.toByteArray(), StandardOpenOption.APPEND);
+
+        assertRecoveredTo(log, valid);
+    }
+
+    /** Two good records for EUR and JPY. */
+    private Path validLog() {
+        Path log = dir.resolve("rates.log");
+        RateHistory history = open(log);
+        history.record(T0, rates("EUR", 0.9, "JPY", 150.0));
+        history.record(T0.plusSeconds(60), rates("EUR", 0.91, "JPY", Double.NaN));
+        return log;
+    }
+
+    /** Loading keeps the good records, cuts the log back to them, and later appends replay cleanly. */
+    private void assertRecoveredTo(Path log, long valid) throws IOException {
+        RateHistory recovered = open(log);
+        assertThat(Files.size(log)).isEqualTo(valid);
+        assertThat(recovered.range("EUR", Instant.EPOCH, T0.plusSeconds(600), null))
+                .extracting(RateHistory.Point::last).containsExactly(0.9, 0.91);
+        assertThat(recovered.range("JPY", Instant.EPOCH, T0.plusSeconds(600), null))
+                .extracting(RateHistory.Point::last).containsExactly(150.0, Double.NaN);
+
+        recovered.record(T0.plusSeconds(600), rates("EUR", 0.95));
+        assertThat(open(log).range("EUR", Instant.EPOCH, T0.plusSeconds(600), null))
+                .extracting(RateHistory.Point::last).containsExactly(0.9, 0.91, 0.95);
+    }
+
+    private static RateHistory open(Path log) {
+        RateHistory history = new RateHistory(true, log.toString());
+        history.load();
+        return history;
+    }
+
+    private static byte[] encode(long time, String code, double rate) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(time);
+            out.writeInt(1);
+            out.writeUTF(code);
+            out.writeDouble(rate);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, Double> rates(Object... codesAndRates) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (int i = 0; i < codesAndRates.length; i += 2) rates.put((String) codesAndRates[i], (Double) codesAndRates[i + 1]);
+        return rates;
+    }
+}
@@ -0,0 +1,84 @@
+package com.haidara.countryapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateSeriesTest {
+
+    private record Sample(long time, double rate) {}
+
+    @Test
+    void roundTripsAwkwardValuesAcrossCheckpoints() {
+        double[] awkward = {1.0, 1.0, 1.0, -1.5, 0.0, -0.0, Double.NaN, Double.NaN, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE, 1e-300, 1600.23, 1600.23};
+        Random random = new Random(7);
+        List<Sample> samples = new ArrayList<>();
+        long time = -86_400; // before the epoch: a negative first delta
+        for (int i = 0; i < RateSeries.CHECKPOINT_INTERVAL * 4 + 17; i++) {
+            double rate = random.nextInt(3) == 0
+                    ? awkward[random.nextInt(awkward.length)]
+                    : 100 + random.nextGaussian();
+            samples.add(new Sample(time, rate));
+            // Mostly small steps, sometimes gaps that need long varints
+            time += random.nextInt(10) == 0 ? 1L << (20 + random.nextInt(30)) : 1 + random.nextInt(3600);
+        }
+
+        RateSeries series = new RateSeries();
+        for (Sample sample : samples) assertThat(series.append(sample.time(), sample.rate())).isTrue();
+
+        assertThat(series.size()).isEqualTo(samples.size());
+        assertThat(scan(series, Long.MIN_VALUE, Long.MAX_VALUE)).isEqualTo(samples);
+    }
+
+    @Test
+    void rangeScansMatchAFilteredCopy() {
+        Random random = new Random(11);
+        List<Sample> samples = new ArrayList<>();
+        RateSeries series = new RateSeries();
+        long time = 1_700_000_000L;
+        for (int i = 0; i < 2_000; i++) {
+            time += 1 + random.nextInt(600);
+            Sample sample = new Sample(time, random.nextBoolean() ? 0.9 : -random.nextDouble());
+            samples.add(sample);
+            series.append(sample.time(), sample.rate());
+        }
+        long first = samples.get(0).time();
+        long last = samples.get(samples.size() - 1).time();
+        for (int i = 0; i < 200; i++) {
+            long from = first - 1_000 + (long) (random.nextDouble() * (last - first + 2_000));
+            long to = from + random.nextInt(200_000) - 10_000;
+            List<Sample> expected = samples.stream().filter(s -> s.time() >= from && s.time() <= to).toList();
+            assertThat(scan(series, from, to)).as("[%d, %d]", from, to).isEqualTo(expected);
+        }
+        // Exact checkpoint boundaries
+        Sample boundary = samples.get(RateSeries.CHECKPOINT_INTERVAL);
+        assertThat(scan(series, boundary.time(), boundary.time())).containsExactly(boundary);
+    }
+
+    @Test
+    void rejectsPointsThatAreNotNewer() {
+        RateSeries series = new RateSeries();
+        assertThat(series.append(100, 1.0)).isTrue();
+        assertThat(series.append(100, 2.0)).isFalse();
+        assertThat(series.append(99, 2.0)).isFalse();
+        assertThat(series.append(101, 2.0)).isTrue();
+        assertThat(scan(series, 0, 1_000)).containsExactly(new Sample(100, 1.0), new Sample(101, 2.0));
+    }
+
+    @Test
+    void emptySeriesScansNothing() {
+        assertThat(scan(new RateSeries(), Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+    }
+
+    /** Decoded points; records compare doubles like {@link Double#compare}, so NaN and -0.0 are checked exactly. */
+    private static List<Sample> scan(RateSeries series, long from, long to) {
+        List<Sample> out = new ArrayList<>();
+        series.scan(from, to, (t, rate) -> out.add(new Sample(t, rate)));
+        return out;
+    }
+}
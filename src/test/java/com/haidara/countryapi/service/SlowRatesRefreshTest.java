@@ -0,0 +1,125 @@
+package com.haidara.countryapi.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The countries stream waits for the exchange rates at its first record. A slow, retrying rates upstream
+ * must not use up the countries attempt's deadline: the countries upstream is healthy and is called once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "app.resilience.attempt-timeout=PT1S",
+        "app.resilience.deadline=PT20S",
+        "app.resilience.backoff-base=PT0.1S",
+        "app.snapshot.enabled=false",
+        "app.rates.history.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:slow-rates",
+        "spring.jpa.show-sql=false"
+})
+class SlowRatesRefreshTest {
+
+    /** Large enough that most of the body is still on the wire when the stream first waits for rates */
+    private static final int COUNTRY_RECORDS = 20_000;
+    private static final String COUNTRIES = countries();
+    private static final String RATES = """
+            {"result":"success","time_last_update_unix":1760745601,"rates":{"USD":1.0,"EUR":0.9,"JPY":150.0}}
+            """;
+
+    private static final AtomicInteger countryCalls = new AtomicInteger();
+    private static final AtomicInteger rateCalls = new AtomicInteger();
+    private static final HttpServer upstream = startUpstream();
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private UpstreamGuard upstreamGuard;
+
+    @Autowired
+    private CountrySnapshotHolder snapshotHolder;
+
+    private static String countries() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < COUNTRY_RECORDS; i++) {
+            if (i > 0) json.append(',');
+            json.append("""
+                    {"name":{"common":"Country %d"},"capital":["Capital %d"],"region":"Europe","population":%d,
+                     "flags":{"png":"https://flags.example/%d.png"},"currencies":{"%s":{}}}
+                    """.formatted(i, i, 1000 + i, i, i % 2 == 0 ? "EUR" : "JPY"));
+        }
+        return json.append(']').toString();
+    }
+
+    /** Countries answer at once; every rates call takes 700 ms and the first two fail with 503. */
+    private static HttpServer startUpstream() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/countries", exchange -> {
+                countryCalls.incrementAndGet();
+                respond(exchange, 200, COUNTRIES);
+            });
+            server.createContext("/rates", exchange -> {
+                int call = rateCalls.incrementAndGet();
+                try {
+                    Thread.sleep(700);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, call <= 2 ? 503 : 200, RATES);
+            });
+            server.setExecutor(Executors.newFixedThreadPool(4));
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrls(DynamicPropertyRegistry registry) {
+        String base = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        registry.add("app.external.countries-api", () -> base + "/countries");
+        registry.add("app.external.exchange-api", () -> base + "/rates");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void slowRatesDoNotTimeOutTheCountriesAttempt() {
+        assertThat(countryService.refreshCountries()).isTrue();
+
+        // Rates took three attempts, over 2 s in total, while each attempt may only take 1 s
+        assertThat(rateCalls.get()).isEqualTo(3);
+        assertThat(countryCalls.get()).isEqualTo(1);
+        assertThat(upstreamGuard.state("countries")).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(snapshotHolder.get().size()).isEqualTo(COUNTRY_RECORDS);
+    }
+}